@@ -0,0 +1,146 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import de.themoep.minedown.adventure.MineDown;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Benchmarks the page render hot paths. Run with {@code ./gradlew jmh}; allocation rates are reported by the GC
+ * profiler.
+ */
+@State(Scope.Benchmark)
+public class PaginatedListBenchmark {
+
+    // Distinct items, repeated to make up lists of any size without holding every item
+    private static final String[] ITEM_POOL = new String[1024];
+
+    static {
+        for (int i = 0; i < ITEM_POOL.length; i++) {
+            ITEM_POOL[i] = "[Entry " + i + "](#00fb9a) by Player_" + (i * 31 % 977) + " *at* 2024-01-" + (i % 28 + 1);
+        }
+    }
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean escape;
+
+    @Param({"default", "custom"})
+    public String template;
+
+    private PaginatedList list;
+    private int totalPages;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final ListOptions.Builder options = new ListOptions.Builder()
+                .setItemsPerPage(10)
+                .setEscapeItemsMineDown(escape);
+        if (template.equals("custom")) {
+            options.setTopic("Audit log")
+                    .setCommand("audit view")
+                    .setHeaderFormat("[%topic%](%color% bold) [-](gray) [%first_item_on_page_index%-%last_item_on_page_index%](white)/[%total_items%](%color%)")
+                    .setFooterFormat("%previous_page_button%[%current_page%/%total_pages%](gray)%next_page_button% %page_jumpers%")
+                    .setPageJumperStartButtons(4)
+                    .setPageJumperEndButtons(4)
+                    .setItemSeparator("\n[>](gray) ");
+        }
+        list = PaginatedList.of(new RepeatingList(size), options.build());
+        totalPages = list.getTotalPages();
+    }
+
+    @State(Scope.Thread)
+    public static class PageCursor {
+        private int next;
+
+        // Cycles through pages spread across the whole list
+        int nextPage(int totalPages) {
+            next = (next + 7919) % totalPages;
+            return next + 1;
+        }
+    }
+
+    @Benchmark
+    public String getRawPage(PageCursor cursor) {
+        return list.getRawPage(cursor.nextPage(totalPages));
+    }
+
+    @Benchmark
+    public String getPageJumperButtons(PageCursor cursor) {
+        return list.getPageJumperButtons(cursor.nextPage(totalPages));
+    }
+
+    @Benchmark
+    public Component getPage(PageCursor cursor) {
+        final MineDown page = list.getPage(cursor.nextPage(totalPages));
+        return page.toComponent();
+    }
+
+    @Benchmark
+    public Component getComponent(PageCursor cursor) {
+        return list.getComponent(cursor.nextPage(totalPages));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String getRawPageMultiThreaded(PageCursor cursor) {
+        return list.getRawPage(cursor.nextPage(totalPages));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Component getPageMultiThreaded(PageCursor cursor) {
+        return list.getPage(cursor.nextPage(totalPages)).toComponent();
+    }
+
+    /**
+     * A list of the given size, repeating the item pool
+     */
+    private static final class RepeatingList extends AbstractList<String> {
+        private final int size;
+
+        private RepeatingList(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public String get(int index) {
+            return ITEM_POOL[index % ITEM_POOL.length];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lays out pages filled with items up to a character and/or line budget
+ * <p>
+ * Prefix sums of item sizes are kept, so the end of a page is found by binary search, and the start of every page
+ * is recorded, so any page is found in constant time. Sources that notify their listeners of changes (as
+ * {@link LivePageSource} does) are laid out incrementally: appended items from the last page, and a change part-way
+ * through the items from the page it is on. A change is only considered laid out once pages have been laid out
+ * from a view of the source taken after it was notified, so a render still holding an older view does not hide it.
+ * <p>
+ * Sources that do not notify are laid out from the last page when their item count grows and the item that was
+ * last is still in place, as it is when items were appended. Otherwise, items could have been inserted or removed
+ * anywhere, so they are laid out again from the first page; such sources that change items in place without
+ * changing their item count are not laid out again.
+ */
+final class BudgetedPageLayout extends PageLayout {
+
+    private final long characterBudget;
+    private final long lineBudget;
+    private final int separatorLength;
+    private final int separatorLines;
+
+    @NotNull
+    private volatile BudgetedPages pages = empty();
+    // The number of changes notified, and the index of the first item changed by a notified change the pages may
+    // not include, or Integer.MAX_VALUE if none
+    private volatile long changeCount;
+    private int changedFrom = Integer.MAX_VALUE;
+
+    BudgetedPageLayout(@NotNull ListOptions options) {
+        this.characterBudget = options.pageCharacterBudget > 0 ? options.pageCharacterBudget : Long.MAX_VALUE;
+        this.lineBudget = options.pageLineBudget > 0 ? options.pageLineBudget : Long.MAX_VALUE;
+        this.separatorLength = options.itemSeparator.length();
+        this.separatorLines = countLines(options.itemSeparator);
+    }
+
+    @Override
+    long getChangeCount() {
+        return changeCount;
+    }
+
+    @NotNull
+    @Override
+    synchronized Pages getPages(@NotNull PageSource source, final long changeCount) {
+        final BudgetedPages current = pages;
+        final int totalItems = source.size();
+        if (changeCount < current.changeCount) {
+            // The view predates changes the pages include, so lay it out on its own without sharing arrays
+            return empty().layOut(source, 0, totalItems, changeCount);
+        }
+        if (totalItems == current.totalItems && changedFrom == Integer.MAX_VALUE) {
+            return current;
+        }
+        final int from;
+        if (changedFrom != Integer.MAX_VALUE && (totalItems >= current.totalItems || changedFrom <= totalItems)) {
+            from = Math.min(changedFrom, current.totalItems);
+        } else {
+            // Items added without notification were appended if the item that was last is still in place;
+            // otherwise, items added or removed could have been anywhere, so lay out every page again
+            from = totalItems > current.totalItems && current.isLastItemOf(source) ? current.totalItems : 0;
+        }
+        // Changes notified after the view was taken may not be in it, so are laid out again from the next view
+        if (changeCount == this.changeCount) {
+            changedFrom = Integer.MAX_VALUE;
+        }
+        final BudgetedPages updated = current.layOut(source, from, totalItems, changeCount);
+        pages = updated;
+        return updated;
+    }
+
+    @Override
+    int getPageOf(final int index) {
+        return pages.getPageOf(index);
+    }
+
+    @Override
+    synchronized void onItemsChanged(final int fromIndex) {
+        changedFrom = Math.min(changedFrom, fromIndex);
+        changeCount++;
+    }
+
+    @Override
+    boolean isChangeShifting() {
+        return true;
+    }
+
+    @NotNull
+    private BudgetedPages empty() {
+        return new BudgetedPages(new long[1], new long[1], 0, null, new int[0], 0, 0);
+    }
+
+    // Returns the number of lines a string adds: one per line break
+    private static int countLines(@NotNull String text) {
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Items laid out into pages. Arrays are shared with the layouts appended after this one, which only write
+     * beyond this layout's items and pages, or write back the same values.
+     */
+    private final class BudgetedPages implements Pages {
+        // Prefix sums of item sizes; entry i is the total size of the items before index i
+        private final long[] characters;
+        private final long[] lines;
+        private final int totalItems;
+        // The last item laid out, to check whether items added without notification were appended
+        @Nullable
+        private final String lastItem;
+        // The index of the first item on each page
+        private final int[] pageStarts;
+        private final int totalPages;
+        // The change count read before the view these pages were laid out from was taken
+        private final long changeCount;
+
+        private BudgetedPages(@NotNull long[] characters, @NotNull long[] lines, final int totalItems,
+                              @Nullable String lastItem, @NotNull int[] pageStarts, final int totalPages,
+                              final long changeCount) {
+            this.characters = characters;
+            this.lines = lines;
+            this.totalItems = totalItems;
+            this.lastItem = lastItem;
+            this.pageStarts = pageStarts;
+            this.totalPages = totalPages;
+            this.changeCount = changeCount;
+        }
+
+        @Override
+        public int getTotalItems() {
+            return totalItems;
+        }
+
+        @Override
+        public int getTotalPages() {
+            return totalPages;
+        }
+
+        @Override
+        public int getPageStart(final int page) {
+            return pageStarts[page - 1];
+        }
+
+        @Override
+        public int getPageEnd(final int page) {
+            return page < totalPages ? pageStarts[page] : totalItems;
+        }
+
+        private int getPageOf(final int index) {
+            if (totalPages == 0) {
+                return 1;
+            }
+            final int position = Arrays.binarySearch(pageStarts, 0, totalPages, index);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+
+        // Returns whether the last item laid out is still at its index in a source
+        private boolean isLastItemOf(@NotNull PageSource source) {
+            return totalItems == 0 || source.getItems(totalItems - 1, 1).get(0).equals(lastItem);
+        }
+
+        // Lay out the items of a source from an index onwards, returning the new layout
+        @NotNull
+        private BudgetedPages layOut(@NotNull PageSource source, final int from, final int totalItems,
+                                     final long changeCount) {
+            // Mid-list changes rewrite values earlier layouts read, so copy; appends only write beyond them
+            final boolean appending = from == this.totalItems;
+            final boolean shared = appending && totalItems < this.characters.length;
+            final long[] characters = shared
+                    ? this.characters : Arrays.copyOf(this.characters, grow(this.characters.length, totalItems + 1));
+            final long[] lines = shared ? this.lines : Arrays.copyOf(this.lines, characters.length);
+
+            final List<String> items = source.getItems(from, totalItems - from);
+            for (int i = 0; i < items.size(); i++) {
+                final String item = items.get(i);
+                characters[from + i + 1] = characters[from + i] + item.length() + separatorLength;
+                lines[from + i + 1] = lines[from + i] + countLines(item) + Math.max(1, separatorLines);
+            }
+
+            // Lay out again from the page the first changed item was on
+            final int firstPage = Math.min(getPageOf(from), totalPages) - 1;
+            int[] starts = appending ? pageStarts : Arrays.copyOf(pageStarts, pageStarts.length);
+            int pageCount = Math.max(0, firstPage);
+            int start = pageCount < totalPages ? pageStarts[pageCount] : 0;
+            while (start < totalItems) {
+                if (pageCount == starts.length) {
+                    starts = Arrays.copyOf(starts, grow(starts.length, pageCount + 1));
+                }
+                starts[pageCount++] = start;
+                start = findPageEnd(characters, lines, start, totalItems);
+            }
+            final String lastItem = !items.isEmpty() ? items.get(items.size() - 1)
+                    : totalItems == this.totalItems ? this.lastItem
+                    : totalItems > 0 ? source.getItems(totalItems - 1, 1).get(0) : null;
+            return new BudgetedPages(characters, lines, totalItems, lastItem, starts, pageCount, changeCount);
+        }
+
+        // Returns the end of the page starting at an index: the most items that fit both budgets, and at least one
+        private int findPageEnd(@NotNull long[] characters, @NotNull long[] lines, final int start,
+                                final int totalItems) {
+            final int end = Math.min(findLastWithin(characters, start, totalItems, characterBudget),
+                    findLastWithin(lines, start, totalItems, lineBudget));
+            return Math.max(start + 1, end);
+        }
+    }
+
+    // Returns the last index in (start, end] whose items from start total within a budget, or start if none do
+    private static int findLastWithin(@NotNull long[] prefix, final int start, final int end, final long budget) {
+        if (budget == Long.MAX_VALUE) {
+            return end;
+        }
+        final long limit = prefix[start] + budget;
+        int low = start + 1;
+        int high = end;
+        int found = start;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            if (prefix[middle] <= limit) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    private static int grow(final int length, final int required) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(required, length * 2L));
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import de.themoep.minedown.adventure.MineDown;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Memoizes the parsed {@link Component} of each page's formatted header and footer, for one list
+ * <p>
+ * The memo is a fixed-size table that each page's header and footer map to one slot of, so it holds at most a
+ * bounded number of components and is read and written without locking. A memoized component is reused for as
+ * long as the page's formatted header or footer is the same, so a page whose items changed but whose chrome did
+ * not is rendered again without parsing its chrome.
+ */
+final class ChromeComponents {
+
+    // The number of pages whose header and footer are memoized
+    private static final int PAGES = 64;
+
+    @NotNull
+    private final ParsedChrome[] memo = new ParsedChrome[PAGES * 2];
+
+    /**
+     * Returns the parsed component of a page's formatted header
+     *
+     * @param page      The page number
+     * @param formatted The formatted header MineDown string
+     * @return The parsed component
+     */
+    @NotNull
+    Component getHeader(final int page, @NotNull String formatted) {
+        return get((page * 2) & (memo.length - 1), formatted);
+    }
+
+    /**
+     * Returns the parsed component of a page's formatted footer
+     *
+     * @param page      The page number
+     * @param formatted The formatted footer MineDown string
+     * @return The parsed component
+     */
+    @NotNull
+    Component getFooter(final int page, @NotNull String formatted) {
+        return get((page * 2 + 1) & (memo.length - 1), formatted);
+    }
+
+    @NotNull
+    private Component get(final int slot, @NotNull String formatted) {
+        final ParsedChrome memoized = memo[slot];
+        if (memoized != null && memoized.formatted.equals(formatted)) {
+            return memoized.component;
+        }
+        final Component parsed = new MineDown(formatted).toComponent();
+        memo[slot] = new ParsedChrome(formatted, parsed);
+        return parsed;
+    }
+
+    /**
+     * A formatted header or footer and its parsed component
+     */
+    private static final class ParsedChrome {
+        @NotNull
+        private final String formatted;
+        @NotNull
+        private final Component component;
+
+        private ParsedChrome(@NotNull String formatted, @NotNull Component component) {
+            this.formatted = formatted;
+            this.component = component;
+        }
+    }
+
+}
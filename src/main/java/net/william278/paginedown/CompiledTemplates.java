@@ -0,0 +1,114 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link FormatTemplate}s and derived values compiled from the formats of a {@link ListOptions}
+ * <p>
+ * Compiled templates are interned by the format options they were compiled from, so that equal options, and
+ * options differing only in non-format settings such as the page size, share one compiled set.
+ */
+final class CompiledTemplates {
+
+    private static final int MAX_INTERNED = 256;
+    private static final Map<List<Object>, CompiledTemplates> INTERNED = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, CompiledTemplates> eldest) {
+            return size() > MAX_INTERNED;
+        }
+    };
+
+    final FormatTemplate headerTemplate;
+    final FormatTemplate footerTemplate;
+    final FormatTemplate pageJumperPageTemplate;
+    final FormatTemplate pageJumperCurrentPageTemplate;
+    final boolean chromeDependsOnTotals;
+    final int chromeLengthEstimate;
+
+    // Parsed component chrome, created on first use by a component render
+    private volatile ComponentTemplates componentTemplates;
+
+    private CompiledTemplates(@NotNull ListOptions options) {
+        headerTemplate = FormatTemplate.compile(options.headerFormat, options);
+        footerTemplate = FormatTemplate.compile(options.footerFormat, options);
+        pageJumperPageTemplate = FormatTemplate.compilePageJumper(options.pageJumperPageFormat, options);
+        pageJumperCurrentPageTemplate = FormatTemplate.compile(options.pageJumperCurrentPageFormat, options);
+        chromeDependsOnTotals = headerTemplate.dependsOnTotals() || footerTemplate.dependsOnTotals();
+
+        final int pageJumperLength = Math.max(pageJumperPageTemplate.estimateLength(0),
+                pageJumperCurrentPageTemplate.estimateLength(0)) + options.pageJumperPageSeparator.length();
+        final int pageJumpersLength = (Math.max(0, options.pageJumperStartButtons)
+                + Math.max(0, options.pageJumperEndButtons) + 1)
+                * pageJumperLength + 2 * options.pageJumperGroupSeparator.length();
+        chromeLengthEstimate = headerTemplate.estimateLength(pageJumpersLength)
+                + footerTemplate.estimateLength(pageJumpersLength) + 4;
+    }
+
+    /**
+     * Returns the compiled templates for the formats of a set of options, compiling them if no options with the
+     * same formats have been compiled recently
+     *
+     * @param options The options, with their format fields set
+     * @return The compiled templates
+     */
+    @NotNull
+    static CompiledTemplates intern(@NotNull ListOptions options) {
+        final List<Object> key = List.of(options.headerFormat, options.footerFormat, options.previousButtonFormat,
+                options.nextButtonFormat, options.pageJumpersFormat, options.pageJumperPageSeparator,
+                options.pageJumperGroupSeparator, options.pageJumperCurrentPageFormat, options.pageJumperPageFormat,
+                options.topic, options.command, options.themeColor.getRGB(), options.itemSeparator,
+                options.pageJumperStartButtons, options.pageJumperEndButtons, options.constantPlaceholders,
+                options.listPlaceholderNames, options.pagePlaceholderNames);
+        synchronized (INTERNED) {
+            final CompiledTemplates interned = INTERNED.get(key);
+            if (interned != null) {
+                return interned;
+            }
+        }
+        final CompiledTemplates compiled = new CompiledTemplates(options);
+        synchronized (INTERNED) {
+            final CompiledTemplates raced = INTERNED.putIfAbsent(key, compiled);
+            return raced != null ? raced : compiled;
+        }
+    }
+
+    /**
+     * Returns the parsed component chrome for options with these templates
+     *
+     * @param options Options with these templates
+     * @return The component templates
+     */
+    @NotNull
+    ComponentTemplates getComponentTemplates(@NotNull ListOptions options) {
+        ComponentTemplates templates = componentTemplates;
+        if (templates == null) {
+            templates = new ComponentTemplates(options);
+            componentTemplates = templates;
+        }
+        return templates;
+    }
+
+}
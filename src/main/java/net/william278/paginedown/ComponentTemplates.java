@@ -0,0 +1,51 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import de.themoep.minedown.adventure.MineDown;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Parsed {@link Component} forms of the {@link ListOptions} chrome that do not vary between pages, shared by every
+ * list using the options
+ */
+final class ComponentTemplates {
+
+    @NotNull
+    private final Component itemSeparator;
+
+    ComponentTemplates(@NotNull ListOptions options) {
+        this.itemSeparator = options.itemSeparator.equals("\n")
+                ? Component.newline()
+                : new MineDown(options.itemSeparator).toComponent();
+    }
+
+    /**
+     * Returns the parsed item separator
+     *
+     * @return The item separator component
+     */
+    @NotNull
+    Component getItemSeparator() {
+        return itemSeparator;
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import de.themoep.minedown.adventure.MineDown;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A paginated list whose pages are fetched by continuation cursor from a {@link CursorSource}, rather than by page
+ * number
+ * <p>
+ * Rendering a page fetches only that page's items. The page buttons link to the cursors of the pages either side:
+ * {@code %previous_page_index%} and {@code %next_page_index%} resolve to the cursors, and the previous and next
+ * buttons are shown only when there is a page to move to. The item index, {@code %total_items%},
+ * {@code %current_page%} and {@code %total_pages%} placeholders resolve to {@code ?} unless the source provides the
+ * position of the page, and page jumpers are not shown. Per-page custom placeholders are resolved with the page
+ * number, or {@code 0} if it is not known.
+ */
+public class CursorPaginatedList {
+
+    // Shown in place of placeholder values the source does not provide
+    private static final String UNKNOWN = "?";
+
+    /**
+     * {@link ListOptions} for displaying the paginated list
+     */
+    @NotNull
+    private final ListOptions options;
+
+    /**
+     * The source of the items to be paginated
+     */
+    @NotNull
+    private final CursorSource source;
+
+    /**
+     * The values of the custom placeholders resolved once per list, by id
+     */
+    @NotNull
+    private final String[] listPlaceholderValues;
+
+    private CursorPaginatedList(@NotNull CursorSource source, @NotNull ListOptions options) {
+        this.source = source;
+        this.options = options;
+        this.listPlaceholderValues = options.resolveListPlaceholders();
+    }
+
+    /**
+     * Create a new {@link CursorPaginatedList} from a {@link CursorSource} and {@link ListOptions}
+     *
+     * @param source  The source of items to be paginated
+     * @param options {@link ListOptions} to be used for generating list pages
+     * @return A new {@link CursorPaginatedList}
+     */
+    @NotNull
+    public static CursorPaginatedList of(@NotNull CursorSource source, @NotNull ListOptions options) {
+        return new CursorPaginatedList(source, options);
+    }
+
+    /**
+     * Returns a {@link MineDown} formatted message to be sent to a player of the page at a cursor.
+     * <p>List formats and options from the {@link ListOptions} are applied to generate the list.
+     *
+     * @param cursor The cursor of the page, as passed to the page command; {@code null} for the first page
+     * @return A {@link MineDown} object, for formatting the list
+     */
+    @NotNull
+    public MineDown getPage(@Nullable String cursor) {
+        return new MineDown(getRawPage(cursor));
+    }
+
+    /**
+     * Generates a raw string of pre-{@link MineDown}-formatted text that when formatted will create the page menu
+     * for the page at a cursor.
+     *
+     * @param cursor The cursor of the page, as passed to the page command; {@code null} for the first page
+     * @return A raw string of pre-MineDown-formatted text, representing the page menu.
+     */
+    @NotNull
+    public String getRawPage(@Nullable String cursor) {
+        final CursorSource.Window window = source.fetch(cursor, options.itemsPerPage);
+        final RenderTimer timer = RenderTimer.start(options, RenderEvent.Type.RAW_PAGE, getCurrentPage(window));
+        final StringBuilder menu = new StringBuilder(options.chromeLengthEstimate);
+        if (!options.headerFormat.isBlank()) {
+            appendPageString(menu, options.headerTemplate, window);
+            menu.append('\n');
+            if (options.spaceAfterHeader) {
+                menu.append('\n');
+            }
+            if (timer != null) {
+                timer.lap(RenderEvent.Stage.HEADER);
+            }
+        }
+
+        final List<String> items = window.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                menu.append(options.itemSeparator);
+            }
+            menu.append(options.escapeItemsMineDown ? MineDown.escape(items.get(i)) : items.get(i));
+        }
+        if (timer != null) {
+            timer.lap(RenderEvent.Stage.ITEMS);
+        }
+
+        if (!options.footerFormat.isBlank()) {
+            menu.append('\n');
+            if (options.spaceBeforeFooter) {
+                menu.append('\n');
+            }
+            appendPageString(menu, options.footerTemplate, window);
+            if (timer != null) {
+                timer.lap(RenderEvent.Stage.FOOTER);
+            }
+        }
+        if (timer != null) {
+            timer.finish(menu.length());
+        }
+        return menu.toString();
+    }
+
+    // Returns the page number of a window, or 0 if not known
+    private int getCurrentPage(@NotNull CursorSource.Window window) {
+        return window.getOffset() >= 0 ? window.getOffset() / options.itemsPerPage + 1 : 0;
+    }
+
+    /**
+     * Runs a compiled ListOption placeholder format against a fetched window, appending the formatted values to a
+     * builder
+     *
+     * @param out    The builder to append to
+     * @param format The compiled format
+     * @param window The fetched window of items
+     */
+    private void appendPageString(@NotNull StringBuilder out, @NotNull FormatTemplate format,
+                                  @NotNull CursorSource.Window window) {
+        format.format(out, new WindowValues(window), listPlaceholderValues, options.pagePlaceholderFunctions);
+    }
+
+    /**
+     * The values of the built-in placeholders for a fetched window, shown as {@code ?} where not known
+     */
+    private final class WindowValues implements FormatTemplate.PageValues {
+        @NotNull
+        private final CursorSource.Window window;
+
+        private WindowValues(@NotNull CursorSource.Window window) {
+            this.window = window;
+        }
+
+        @Override
+        public int getPage() {
+            return getCurrentPage(window);
+        }
+
+        @Override
+        public void appendValue(@NotNull StringBuilder out, final int token) {
+            final int offset = window.getOffset();
+            final int totalItems = window.getTotalItems();
+            switch (token) {
+                case FormatTemplate.FIRST_ITEM_ON_PAGE_INDEX:
+                    appendKnown(out, offset < 0 ? -1 : offset + 1);
+                    break;
+                case FormatTemplate.LAST_ITEM_ON_PAGE_INDEX:
+                    appendKnown(out, offset < 0 ? -1 : offset + window.getItems().size());
+                    break;
+                case FormatTemplate.TOTAL_ITEMS:
+                    appendKnown(out, totalItems);
+                    break;
+                case FormatTemplate.CURRENT_PAGE:
+                    appendKnown(out, offset < 0 ? -1 : getCurrentPage(window));
+                    break;
+                case FormatTemplate.TOTAL_PAGES:
+                    appendKnown(out, totalItems < 0 ? -1
+                            : Math.max(1, (totalItems + options.itemsPerPage - 1) / options.itemsPerPage));
+                    break;
+                case FormatTemplate.NEXT_PAGE_INDEX:
+                    if (window.getNextCursor() != null) {
+                        out.append(window.getNextCursor());
+                    }
+                    break;
+                case FormatTemplate.PREVIOUS_PAGE_INDEX:
+                    if (window.getPreviousCursor() != null) {
+                        out.append(window.getPreviousCursor());
+                    }
+                    break;
+            }
+        }
+
+        @Override
+        public boolean isShown(final int token) {
+            switch (token) {
+                case FormatTemplate.PREVIOUS_PAGE_BUTTON:
+                    return window.getPreviousCursor() != null;
+                case FormatTemplate.NEXT_PAGE_BUTTON:
+                    return window.getNextCursor() != null;
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        public void appendPageJumpButtons(@NotNull StringBuilder out) {
+            // Page jumpers need page numbers, which cursors do not provide
+        }
+    }
+
+    private static void appendKnown(@NotNull StringBuilder out, final int value) {
+        if (value < 0) {
+            out.append(UNKNOWN);
+        } else {
+            out.append(value);
+        }
+    }
+
+}
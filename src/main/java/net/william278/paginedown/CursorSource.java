@@ -0,0 +1,170 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A source of items paginated by continuation cursor (keyset pagination), for a {@link CursorPaginatedList}
+ * <p>
+ * Each page of items is fetched relative to an opaque cursor returned with the previous page, such as the sort key
+ * of its last item, rather than by offset. Fetching a page costs no more the deeper it is in the list, and items
+ * inserted before a page do not shift it.
+ *
+ * @see CursorPaginatedList#of(CursorSource, ListOptions)
+ */
+@FunctionalInterface
+public interface CursorSource {
+
+    /**
+     * Fetch the page of items at a cursor
+     *
+     * @param cursor The cursor of the page to fetch, as returned by a previously fetched {@link Window};
+     *               {@code null} for the first page
+     * @param limit  The maximum number of items to return
+     * @return The page of items, with the cursors of the pages either side of it
+     */
+    @NotNull
+    Window fetch(@Nullable String cursor, int limit);
+
+    /**
+     * A page of items fetched from a {@link CursorSource}
+     * <p>
+     * Cursors are embedded in page commands in place of page numbers, so may only contain ASCII letters, digits,
+     * {@code -}, {@code .} and {@code :}, such as a number, a hex string or a UUID. This keeps them from ending
+     * the command's link or adding {@code MineDown} formatting.
+     */
+    final class Window {
+
+        @NotNull
+        private final List<String> items;
+        @Nullable
+        private final String previousCursor;
+        @Nullable
+        private final String nextCursor;
+        private final int offset;
+        private final int totalItems;
+
+        private Window(@NotNull List<String> items, @Nullable String previousCursor, @Nullable String nextCursor,
+                       final int offset, final int totalItems) throws PaginationException {
+            validateCursor(previousCursor);
+            validateCursor(nextCursor);
+            this.items = items;
+            this.previousCursor = previousCursor;
+            this.nextCursor = nextCursor;
+            this.offset = offset;
+            this.totalItems = totalItems;
+        }
+
+        /**
+         * Create a window of items whose position in the list is not known
+         *
+         * @param items          The items on the page, in order
+         * @param previousCursor The cursor of the previous page, or {@code null} if this is the first page
+         * @param nextCursor     The cursor of the next page, or {@code null} if this is the last page
+         * @return A new window
+         * @throws PaginationException If a cursor contains characters other than ASCII letters, digits, {@code -},
+         *                             {@code .} and {@code :}
+         */
+        @NotNull
+        public static Window of(@NotNull List<String> items, @Nullable String previousCursor,
+                                @Nullable String nextCursor) throws PaginationException {
+            return new Window(items, previousCursor, nextCursor, -1, -1);
+        }
+
+        /**
+         * Create a window of items at a known position in a list of a known size, for sources that can provide them
+         * cheaply; the position and size are shown by the page index and total placeholders
+         *
+         * @param items          The items on the page, in order
+         * @param previousCursor The cursor of the previous page, or {@code null} if this is the first page
+         * @param nextCursor     The cursor of the next page, or {@code null} if this is the last page
+         * @param offset         The index of the first item on the page
+         * @param totalItems     The total number of items
+         * @return A new window
+         * @throws PaginationException If the offset or total is negative, or a cursor contains characters other
+         *                             than ASCII letters, digits, {@code -}, {@code .} and {@code :}
+         */
+        @NotNull
+        public static Window of(@NotNull List<String> items, @Nullable String previousCursor,
+                                @Nullable String nextCursor, final int offset, final int totalItems)
+                throws PaginationException {
+            if (offset < 0 || totalItems < 0) {
+                throw new PaginationException("Offset and total items must be >= 0");
+            }
+            return new Window(items, previousCursor, nextCursor, offset, totalItems);
+        }
+
+        // Rejects cursors that could end a page command's link or be parsed as MineDown formatting
+        private static void validateCursor(@Nullable String cursor) throws PaginationException {
+            if (cursor == null) {
+                return;
+            }
+            if (cursor.isEmpty()) {
+                throw new PaginationException("Cursors must not be empty");
+            }
+            for (int i = 0; i < cursor.length(); i++) {
+                final char c = cursor.charAt(i);
+                if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                        || c == '-' || c == '.' || c == ':')) {
+                    throw new PaginationException("Cursor contains an unsupported character '" + c + "': " + cursor);
+                }
+            }
+        }
+
+        @NotNull
+        public List<String> getItems() {
+            return items;
+        }
+
+        @Nullable
+        public String getPreviousCursor() {
+            return previousCursor;
+        }
+
+        @Nullable
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        /**
+         * Returns the index of the first item on the page
+         *
+         * @return The index of the first item, or {@code -1} if not known
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * Returns the total number of items
+         *
+         * @return The total number of items, or {@code -1} if not known
+         */
+        public int getTotalItems() {
+            return totalItems;
+        }
+
+    }
+
+}
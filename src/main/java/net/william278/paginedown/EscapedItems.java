@@ -0,0 +1,86 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import de.themoep.minedown.adventure.MineDown;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Memoizes the {@link MineDown#escape(String) escaped} form of recently rendered items by their index in a list
+ * <p>
+ * Items are escaped the first time they are rendered. The memo is a fixed-size table that each index maps to one
+ * slot of, so it holds at most a bounded number of items however long the list is. A memoized escape is reused for
+ * as long as the item at that index is the same (or an equal) string, so replaced items are escaped again.
+ */
+final class EscapedItems {
+
+    // The largest number of items memoized, regardless of page size
+    private static final int MAX_SLOTS = 1 << 16;
+
+    @NotNull
+    private final EscapedItem[] memo;
+
+    /**
+     * Create a memo of escaped items
+     *
+     * @param capacity The number of items to memoize, rounded up to a power of two
+     */
+    EscapedItems(final int capacity) {
+        this.memo = new EscapedItem[Integer.highestOneBit(Math.max(1, Math.min(capacity, MAX_SLOTS)) * 2 - 1)];
+    }
+
+    /**
+     * Returns the escaped form of an item
+     *
+     * @param index The index of the item in the list
+     * @param item  The item
+     * @return The escaped item
+     */
+    @NotNull
+    String get(final int index, @NotNull String item) {
+        final int slot = index & (memo.length - 1);
+        final EscapedItem memoized = memo[slot];
+        if (memoized != null && memoized.index == index
+                && (memoized.item == item || memoized.item.equals(item))) {
+            return memoized.escaped;
+        }
+        final String escapedItem = MineDown.escape(item);
+        memo[slot] = new EscapedItem(index, item, escapedItem);
+        return escapedItem;
+    }
+
+    /**
+     * An item and its escaped form
+     */
+    private static final class EscapedItem {
+        private final int index;
+        @NotNull
+        private final String item;
+        @NotNull
+        private final String escaped;
+
+        private EscapedItem(final int index, @NotNull String item, @NotNull String escaped) {
+            this.index = index;
+            this.item = item;
+            this.escaped = escaped;
+        }
+    }
+
+}
@@ -0,0 +1,448 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * A {@link ListOptions} placeholder format, compiled once into a sequence of literal segments and placeholder ids
+ * <p>
+ * Placeholders that do not depend on the page being rendered ({@code %color%}, {@code %command%},
+ * {@code %topic%} and constant custom placeholders) are folded into literal segments at compile time. Custom
+ * placeholders resolved per list or per page compile to a token holding their integer id. Unknown placeholders are
+ * dropped.
+ */
+final class FormatTemplate {
+
+    static final int LITERAL = 0;
+    static final int FIRST_ITEM_ON_PAGE_INDEX = 1;
+    static final int LAST_ITEM_ON_PAGE_INDEX = 2;
+    static final int TOTAL_ITEMS = 3;
+    static final int CURRENT_PAGE = 4;
+    static final int TOTAL_PAGES = 5;
+    static final int NEXT_PAGE_INDEX = 6;
+    static final int PREVIOUS_PAGE_INDEX = 7;
+    static final int PREVIOUS_PAGE_BUTTON = 8;
+    static final int NEXT_PAGE_BUTTON = 9;
+    static final int PAGE_JUMPERS = 10;
+    static final int PAGE_JUMP_BUTTONS = 11;
+    static final int LIST_PLACEHOLDER = 12;
+    static final int PAGE_PLACEHOLDER = 13;
+
+    // The longest formatted length of an int placeholder value
+    private static final int MAX_NUMBER_LENGTH = 10;
+
+    // Placeholders resolved at render time, by name
+    private static final Map<String, Integer> PLACEHOLDER_IDS = Map.of(
+            "first_item_on_page_index", FIRST_ITEM_ON_PAGE_INDEX,
+            "last_item_on_page_index", LAST_ITEM_ON_PAGE_INDEX,
+            "total_items", TOTAL_ITEMS,
+            "current_page", CURRENT_PAGE,
+            "total_pages", TOTAL_PAGES,
+            "next_page_index", NEXT_PAGE_INDEX,
+            "previous_page_index", PREVIOUS_PAGE_INDEX,
+            "page_jump_buttons", PAGE_JUMP_BUTTONS
+    );
+
+    /**
+     * The placeholder id of each token, or {@link #LITERAL}
+     */
+    final int[] tokens;
+
+    /**
+     * The text of each {@link #LITERAL} token; {@code null} for other tokens
+     */
+    final String[] literals;
+
+    /**
+     * The nested template of each button token; {@code null} for other tokens
+     */
+    final FormatTemplate[] nested;
+
+    /**
+     * The custom placeholder id of each {@link #LIST_PLACEHOLDER} and {@link #PAGE_PLACEHOLDER} token
+     */
+    final int[] ids;
+
+    private FormatTemplate(int[] tokens, String[] literals, FormatTemplate[] nested, int[] ids) {
+        this.tokens = tokens;
+        this.literals = literals;
+        this.nested = nested;
+        this.ids = ids;
+    }
+
+    /**
+     * Returns whether a placeholder name is resolved by the library, and so cannot be registered as a custom
+     * placeholder
+     *
+     * @param name The lower-case placeholder name
+     * @return Whether the placeholder is built in
+     */
+    static boolean isBuiltIn(@NotNull String name) {
+        switch (name) {
+            case "topic":
+            case "color":
+            case "command":
+            case "target_page_index":
+            case "previous_page_button":
+            case "next_page_button":
+            case "page_jumpers":
+                return true;
+            default:
+                return PLACEHOLDER_IDS.containsKey(name);
+        }
+    }
+
+    /**
+     * Returns whether this template's output depends on the total number of items or pages, and so changes on
+     * every page when items are added or removed
+     *
+     * @return Whether the template depends on the list totals
+     */
+    boolean dependsOnTotals() {
+        for (int i = 0; i < tokens.length; i++) {
+            switch (tokens[i]) {
+                case LAST_ITEM_ON_PAGE_INDEX:
+                case TOTAL_ITEMS:
+                case TOTAL_PAGES:
+                case NEXT_PAGE_BUTTON:
+                case PAGE_JUMPERS:
+                case PAGE_JUMP_BUTTONS:
+                    return true;
+            }
+            if (nested[i] != null && nested[i].dependsOnTotals()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns an upper estimate of the length of this template once formatted, used to presize render buffers
+     *
+     * @param pageJumperButtonsLength The estimated length of the page jumper buttons
+     * @return The estimated formatted length
+     */
+    int estimateLength(final int pageJumperButtonsLength) {
+        int length = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i] == LITERAL) {
+                length += literals[i].length();
+            } else if (tokens[i] == PAGE_JUMP_BUTTONS) {
+                length += pageJumperButtonsLength;
+            } else if (nested[i] != null) {
+                length += nested[i].estimateLength(pageJumperButtonsLength);
+            } else {
+                length += MAX_NUMBER_LENGTH;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Compile a top-level format string
+     *
+     * @param format  The format string
+     * @param options The {@link ListOptions} to resolve constant and nested placeholders against
+     * @return The compiled template
+     */
+    @NotNull
+    static FormatTemplate compile(@NotNull String format, @NotNull ListOptions options) {
+        return new Compiler(options, false).compile(format);
+    }
+
+    /**
+     * Compile a page jumper format string, in which {@code %target_page_index%} resolves to the jumper's page
+     *
+     * @param format  The page jumper format string
+     * @param options The {@link ListOptions} to resolve constant and nested placeholders against
+     * @return The compiled template
+     */
+    @NotNull
+    static FormatTemplate compilePageJumper(@NotNull String format, @NotNull ListOptions options) {
+        return new Compiler(options, true).compile(format);
+    }
+
+    /**
+     * Runs this template against the values of a page, appending the formatted values to a builder
+     *
+     * @param out                   The builder to append to
+     * @param page                  The values of the page's built-in placeholders
+     * @param listPlaceholderValues The values of the custom placeholders resolved per list, by id
+     * @param pagePlaceholders      The functions of the custom placeholders resolved per page, by id
+     */
+    void format(@NotNull StringBuilder out, @NotNull PageValues page, @NotNull String[] listPlaceholderValues,
+                @NotNull List<IntFunction<String>> pagePlaceholders) {
+        for (int i = 0; i < tokens.length; i++) {
+            switch (tokens[i]) {
+                case LITERAL:
+                    out.append(literals[i]);
+                    break;
+                case FIRST_ITEM_ON_PAGE_INDEX:
+                case LAST_ITEM_ON_PAGE_INDEX:
+                case TOTAL_ITEMS:
+                case CURRENT_PAGE:
+                case TOTAL_PAGES:
+                case NEXT_PAGE_INDEX:
+                case PREVIOUS_PAGE_INDEX:
+                    page.appendValue(out, tokens[i]);
+                    break;
+                case PREVIOUS_PAGE_BUTTON:
+                case NEXT_PAGE_BUTTON:
+                case PAGE_JUMPERS:
+                    if (page.isShown(tokens[i])) {
+                        nested[i].format(out, page, listPlaceholderValues, pagePlaceholders);
+                    }
+                    break;
+                case PAGE_JUMP_BUTTONS:
+                    page.appendPageJumpButtons(out);
+                    break;
+                case LIST_PLACEHOLDER:
+                    out.append(listPlaceholderValues[ids[i]]);
+                    break;
+                case PAGE_PLACEHOLDER:
+                    out.append(pagePlaceholders.get(ids[i]).apply(page.getPage()));
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Append the tokens of this template to a compiler, used when splicing a nested format inline
+     */
+    private void appendTo(@NotNull Compiler compiler) {
+        for (int i = 0; i < tokens.length; i++) {
+            compiler.add(tokens[i], literals[i], nested[i], ids[i]);
+        }
+    }
+
+    /**
+     * Walks format strings, mirroring the {@code %placeholder%} syntax rules applied when rendering
+     */
+    private static final class Compiler {
+        private final ListOptions options;
+        private final boolean resolveTargetPage;
+        private final boolean insidePageJumper;
+        private final List<Integer> tokens = new ArrayList<>();
+        private final List<String> literals = new ArrayList<>();
+        private final List<FormatTemplate> nested = new ArrayList<>();
+        private final List<Integer> ids = new ArrayList<>();
+        private final StringBuilder pendingLiteral = new StringBuilder();
+
+        // Formats currently being expanded, to guard against self-referencing formats
+        private final List<String> expanding;
+
+        private Compiler(@NotNull ListOptions options, boolean pageJumper) {
+            this(options, pageJumper, pageJumper, new ArrayList<>());
+        }
+
+        private Compiler(@NotNull ListOptions options, boolean resolveTargetPage, boolean insidePageJumper,
+                         @NotNull List<String> expanding) {
+            this.options = options;
+            this.resolveTargetPage = resolveTargetPage;
+            this.insidePageJumper = insidePageJumper;
+            this.expanding = expanding;
+        }
+
+        @NotNull
+        private FormatTemplate compile(@NotNull String format) {
+            parse(format);
+            flushLiteral();
+            final int[] tokenArray = new int[tokens.size()];
+            final int[] idArray = new int[tokens.size()];
+            for (int i = 0; i < tokenArray.length; i++) {
+                tokenArray[i] = tokens.get(i);
+                idArray[i] = ids.get(i);
+            }
+            return new FormatTemplate(tokenArray, literals.toArray(new String[0]),
+                    nested.toArray(new FormatTemplate[0]), idArray);
+        }
+
+        private void parse(@NotNull String format) {
+            int placeholderStart = -1;
+            for (int i = 0; i < format.length(); i++) {
+                final char c = format.charAt(i);
+                if (c == '%') {
+                    if (placeholderStart >= 0) {
+                        resolve(format.substring(placeholderStart, i).toLowerCase());
+                        placeholderStart = -1;
+                    } else {
+                        placeholderStart = i + 1;
+                    }
+                    continue;
+                }
+                if (placeholderStart < 0) {
+                    pendingLiteral.append(c);
+                }
+            }
+        }
+
+        private void resolve(@NotNull String placeholder) {
+            switch (placeholder) {
+                case "topic":
+                    expand("topic", options.topic);
+                    return;
+                case "color":
+                    pendingLiteral.append(String.format("#%02x%02x%02x", options.themeColor.getRed(),
+                            options.themeColor.getGreen(), options.themeColor.getBlue()));
+                    return;
+                case "command":
+                    pendingLiteral.append(options.command);
+                    return;
+                case "target_page_index":
+                    if (resolveTargetPage) {
+                        add(CURRENT_PAGE, null, null, 0);
+                    }
+                    return;
+                case "previous_page_button":
+                    addNested(PREVIOUS_PAGE_BUTTON, "previous_page_button", options.previousButtonFormat);
+                    return;
+                case "next_page_button":
+                    addNested(NEXT_PAGE_BUTTON, "next_page_button", options.nextButtonFormat);
+                    return;
+                case "page_jumpers":
+                    addNested(PAGE_JUMPERS, "page_jumpers", options.pageJumpersFormat);
+                    return;
+                case "page_jump_buttons":
+                    if (insidePageJumper) {
+                        return;
+                    }
+                    break;
+            }
+            final Integer id = PLACEHOLDER_IDS.get(placeholder);
+            if (id != null) {
+                add(id, null, null, 0);
+                return;
+            }
+            resolveCustom(placeholder);
+        }
+
+        private void resolveCustom(@NotNull String placeholder) {
+            final String constant = options.constantPlaceholders.get(placeholder);
+            if (constant != null) {
+                pendingLiteral.append(constant);
+                return;
+            }
+            final int listId = options.listPlaceholderNames.indexOf(placeholder);
+            if (listId >= 0) {
+                add(LIST_PLACEHOLDER, null, null, listId);
+                return;
+            }
+            final int pageId = options.pagePlaceholderNames.indexOf(placeholder);
+            if (pageId >= 0) {
+                add(PAGE_PLACEHOLDER, null, null, pageId);
+            }
+        }
+
+        // Splice a nested format's tokens directly into this template
+        private void expand(@NotNull String name, @NotNull String format) {
+            final FormatTemplate template = compileNested(name, format);
+            if (template != null) {
+                template.appendTo(this);
+            }
+        }
+
+        private void addNested(int token, @NotNull String name, @NotNull String format) {
+            final FormatTemplate template = compileNested(name, format);
+            if (template != null) {
+                add(token, null, template, 0);
+            }
+        }
+
+        @Nullable
+        private FormatTemplate compileNested(@NotNull String name, @NotNull String format) {
+            if (expanding.contains(name)) {
+                return null;
+            }
+            expanding.add(name);
+            try {
+                return new Compiler(options, false, insidePageJumper, expanding).compile(format);
+            } finally {
+                expanding.remove(name);
+            }
+        }
+
+        private void add(int token, @Nullable String literal, @Nullable FormatTemplate template, int id) {
+            if (token == LITERAL) {
+                pendingLiteral.append(literal);
+                return;
+            }
+            flushLiteral();
+            tokens.add(token);
+            literals.add(null);
+            nested.add(template);
+            ids.add(id);
+        }
+
+        private void flushLiteral() {
+            if (pendingLiteral.length() > 0) {
+                tokens.add(LITERAL);
+                literals.add(pendingLiteral.toString());
+                nested.add(null);
+                ids.add(0);
+                pendingLiteral.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * The values of the built-in placeholders for one page, as resolved by a kind of list
+     */
+    interface PageValues {
+
+        /**
+         * Returns the page number, passed to per-page custom placeholders
+         *
+         * @return The page number, or {@code 0} if not known
+         */
+        int getPage();
+
+        /**
+         * Appends the value of a placeholder that resolves to a page index, item index or total
+         *
+         * @param out   The builder to append to
+         * @param token The placeholder token
+         */
+        void appendValue(@NotNull StringBuilder out, int token);
+
+        /**
+         * Returns whether a button or the page jumpers are shown on the page
+         *
+         * @param token The {@link #PREVIOUS_PAGE_BUTTON}, {@link #NEXT_PAGE_BUTTON} or {@link #PAGE_JUMPERS} token
+         * @return Whether it is shown
+         */
+        boolean isShown(int token);
+
+        /**
+         * Appends the page jumper buttons of the page
+         *
+         * @param out The builder to append to
+         */
+        void appendPageJumpButtons(@NotNull StringBuilder out);
+
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A {@link PageSource} of typed items, formatted into strings only when the page they are on is fetched
+ * <p>
+ * Formatted items can be memoized in a fixed-size, direct-mapped table indexed by item index. A memoized item is
+ * reused while the item at its index is the same instance; otherwise it is formatted again, replacing the entry.
+ *
+ * @param <T> The type of the items
+ */
+final class FormattedPageSource<T> implements PageSource {
+
+    @NotNull
+    private final List<T> items;
+    @NotNull
+    private final Function<? super T, String> formatter;
+    @Nullable
+    private final FormattedItem[] memo;
+
+    FormattedPageSource(@NotNull List<T> items, @NotNull Function<? super T, String> formatter, final int memoSize) {
+        this.items = items;
+        this.formatter = formatter;
+        this.memo = memoSize > 0
+                ? new FormattedItem[Integer.highestOneBit(Math.min(memoSize, 1 << 29) * 2 - 1)]
+                : null;
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @NotNull
+    @Override
+    public List<String> getItems(int offset, int limit) {
+        final int end = Math.min(items.size(), offset + limit);
+        final String[] formatted = new String[Math.max(0, end - offset)];
+        for (int i = 0; i < formatted.length; i++) {
+            formatted[i] = format(offset + i, items.get(offset + i));
+        }
+        return Arrays.asList(formatted);
+    }
+
+    @NotNull
+    private String format(final int index, @NotNull T item) {
+        if (memo == null) {
+            return formatter.apply(item);
+        }
+        final int slot = index & (memo.length - 1);
+        final FormattedItem memoized = memo[slot];
+        if (memoized != null && memoized.index == index && memoized.item == item) {
+            return memoized.formatted;
+        }
+        final String formatted = formatter.apply(item);
+        memo[slot] = new FormattedItem(index, item, formatted);
+        return formatted;
+    }
+
+    /**
+     * An item and its formatted string
+     */
+    private static final class FormattedItem {
+        private final int index;
+        @NotNull
+        private final Object item;
+        @NotNull
+        private final String formatted;
+
+        private FormattedItem(final int index, @NotNull Object item, @NotNull String formatted) {
+            this.index = index;
+            this.item = item;
+            this.formatted = formatted;
+        }
+    }
+
+}
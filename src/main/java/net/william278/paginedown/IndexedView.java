@@ -0,0 +1,334 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.SoftReference;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * A filtered and/or sorted {@link PageSource} view over a list of items, held as an {@code int[]} permutation of
+ * indexes into the items rather than as a copy of them
+ * <p>
+ * Views over sources that return immutable snapshots index into the snapshot itself, fetching items from it as
+ * they are needed, so views of packed or file-backed sources do not hold the items on the heap. Views over sources
+ * whose items are mutable copy the references to the items when the view is created, so later changes to the
+ * source are not reflected in, and cannot fail, the view. Filtering or sorting a view creates a new view over the
+ * same items.
+ */
+final class IndexedView implements PageSource {
+
+    // The number of items fetched from a snapshot at once when reading through it
+    private static final int FETCH_SIZE = 256;
+
+    @NotNull
+    private final Items items;
+    // The indexes of the items in the view, in order; null for every item in order
+    @Nullable
+    private final int[] indexes;
+
+    private IndexedView(@NotNull Items items, @Nullable int[] indexes) {
+        this.items = items;
+        this.indexes = indexes;
+    }
+
+    /**
+     * Returns a view over every item in a source, in order
+     * <p>
+     * Views of an unchanged immutable snapshot share its search keys until they are released under memory pressure.
+     *
+     * @param source     The source of items
+     * @param searchKeys The search keys of the source's items
+     * @return The view
+     */
+    @NotNull
+    static IndexedView over(@NotNull PageSource source, @NotNull SearchKeys searchKeys) {
+        if (source instanceof IndexedView) {
+            return (IndexedView) source;
+        }
+        final PageSource snapshot = source.snapshot();
+        if (snapshot != source || snapshot instanceof PackedPageSource) {
+            final Items viewed = searchKeys.viewed.get();
+            if (viewed != null && viewed.snapshot == snapshot) {
+                return new IndexedView(viewed, null);
+            }
+            final Items items = new Items(snapshot, null, searchKeys);
+            searchKeys.viewed = new SoftReference<>(items);
+            return new IndexedView(items, null);
+        }
+        return new IndexedView(new Items(null, snapshot.getItems(0, snapshot.size()).toArray(new String[0]),
+                searchKeys), null);
+    }
+
+    @Override
+    public int size() {
+        return indexes != null ? indexes.length : items.size;
+    }
+
+    @NotNull
+    @Override
+    public List<String> getItems(int offset, int limit) {
+        final int end = Math.min(size(), offset + limit);
+        final String[] page = new String[Math.max(0, end - offset)];
+        final Reader reader = items.reader();
+        for (int i = 0; i < page.length; i++) {
+            page[i] = reader.get(indexAt(offset + i));
+        }
+        return Arrays.asList(page);
+    }
+
+    /**
+     * Returns a view of the items in this view containing a search query, ignoring case
+     *
+     * @param query The search query
+     * @return The filtered view
+     */
+    @NotNull
+    IndexedView search(@NotNull String query) {
+        final String lowerCaseQuery = query.toLowerCase(Locale.ROOT);
+        final String[] keys = items.getKeys();
+        return filterIndexes(index -> keys[index].contains(lowerCaseQuery));
+    }
+
+    /**
+     * Returns a view of the items in this view matching a predicate
+     *
+     * @param filter The predicate items must match
+     * @return The filtered view
+     */
+    @NotNull
+    IndexedView filter(@NotNull Predicate<String> filter) {
+        final Reader reader = items.reader();
+        return filterIndexes(index -> filter.test(reader.get(index)));
+    }
+
+    /**
+     * Returns a view of the items in this view, sorted by a comparator. The sort is stable.
+     *
+     * @param comparator The comparator to sort items by
+     * @return The sorted view
+     */
+    @NotNull
+    IndexedView sort(@NotNull Comparator<? super String> comparator) {
+        final int[] sorted = new int[size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = indexAt(i);
+        }
+        // Items fetched from a snapshot are held only while sorting
+        final String[] values = items.values != null ? items.values : items.fetchAll();
+        mergeSort(values, sorted, new int[sorted.length], 0, sorted.length, comparator);
+        return new IndexedView(items, sorted);
+    }
+
+    @NotNull
+    private IndexedView filterIndexes(@NotNull IndexPredicate filter) {
+        int[] matches = new int[Math.min(size(), 16)];
+        int count = 0;
+        for (int i = 0; i < size(); i++) {
+            final int index = indexAt(i);
+            if (filter.test(index)) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, Math.min(size(), matches.length * 2));
+                }
+                matches[count++] = index;
+            }
+        }
+        return new IndexedView(items, Arrays.copyOf(matches, count));
+    }
+
+    private int indexAt(final int position) {
+        return indexes != null ? indexes[position] : position;
+    }
+
+    // Stable merge sort of item indexes, comparing the items they point to
+    private static void mergeSort(@NotNull String[] values, @NotNull int[] indexes, @NotNull int[] buffer,
+                                  final int from, final int to, @NotNull Comparator<? super String> comparator) {
+        if (to - from < 2) {
+            return;
+        }
+        final int middle = (from + to) >>> 1;
+        mergeSort(values, indexes, buffer, from, middle, comparator);
+        mergeSort(values, indexes, buffer, middle, to, comparator);
+        if (comparator.compare(values[indexes[middle - 1]], values[indexes[middle]]) <= 0) {
+            return;
+        }
+        System.arraycopy(indexes, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle
+                    && comparator.compare(values[buffer[left]], values[buffer[right]]) <= 0)) {
+                indexes[i] = buffer[left++];
+            } else {
+                indexes[i] = buffer[right++];
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexPredicate {
+        boolean test(int index);
+    }
+
+    /**
+     * The items a view and the views derived from it index into: either an immutable snapshot, read from as needed,
+     * or a copy of the references to a mutable source's items
+     */
+    private static final class Items {
+        @Nullable
+        private final PageSource snapshot;
+        @Nullable
+        private final String[] values;
+        private final int size;
+        @NotNull
+        private final SearchKeys searchKeys;
+        // Computed on the first search of any view of the items, and released under memory pressure
+        @NotNull
+        private volatile SoftReference<String[]> keys = new SoftReference<>(null);
+
+        private Items(@Nullable PageSource snapshot, @Nullable String[] values, @NotNull SearchKeys searchKeys) {
+            this.snapshot = snapshot;
+            this.values = values;
+            this.size = values != null ? values.length : snapshot.size();
+            this.searchKeys = searchKeys;
+        }
+
+        @NotNull
+        private Reader reader() {
+            return new Reader(this);
+        }
+
+        @NotNull
+        private String[] fetchAll() {
+            final String[] all = new String[size];
+            final Reader reader = reader();
+            for (int i = 0; i < size; i++) {
+                all[i] = reader.get(i);
+            }
+            return all;
+        }
+
+        @NotNull
+        private String[] getKeys() {
+            String[] current = keys.get();
+            if (current == null) {
+                current = values != null ? searchKeys.getKeys(values) : SearchKeys.lowerCase(fetchAll());
+                keys = new SoftReference<>(current);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Reads items by index, fetching them from a snapshot a range at a time, for use by one thread
+     */
+    private static final class Reader {
+        @NotNull
+        private final Items items;
+        @NotNull
+        private List<String> fetched = List.of();
+        private int fetchedFrom;
+
+        private Reader(@NotNull Items items) {
+            this.items = items;
+        }
+
+        @NotNull
+        private String get(final int index) {
+            if (items.values != null) {
+                return items.values[index];
+            }
+            if (index < fetchedFrom || index >= fetchedFrom + fetched.size()) {
+                fetchedFrom = index - index % FETCH_SIZE;
+                fetched = items.snapshot.getItems(fetchedFrom, Math.min(FETCH_SIZE, items.size - fetchedFrom));
+            }
+            return fetched.get(index - fetchedFrom);
+        }
+    }
+
+    /**
+     * Lower-cased search keys of a list's items, computed once per item and recomputed for replaced items
+     * <p>
+     * Published key arrays are never modified; keys are reused from the previously keyed items where the item at
+     * the same index is the same string. Keys, and the items of the snapshot most recently viewed, are referenced
+     * softly, so that views of an unchanged immutable snapshot share its search keys until memory is needed.
+     */
+    static final class SearchKeys {
+
+        @NotNull
+        private volatile SoftReference<Keyed> keyed = new SoftReference<>(null);
+        @NotNull
+        private volatile SoftReference<Items> viewed = new SoftReference<>(null);
+
+        /**
+         * Returns the search key of each item
+         *
+         * @param items The items, which must not be modified afterwards
+         * @return The search keys, indexed as the items
+         */
+        @NotNull
+        String[] getKeys(@NotNull String[] items) {
+            final Keyed previous = keyed.get();
+            final String[] keys = new String[items.length];
+            for (int i = 0; i < keys.length; i++) {
+                if (previous != null && i < previous.items.length && previous.items[i] == items[i]) {
+                    keys[i] = previous.keys[i];
+                } else {
+                    keys[i] = items[i].toLowerCase(Locale.ROOT);
+                }
+            }
+            keyed = new SoftReference<>(new Keyed(items, keys));
+            return keys;
+        }
+
+        // Returns the search key of each of a snapshot's items, which are fetched anew so cannot be reused
+        @NotNull
+        private static String[] lowerCase(@NotNull String[] items) {
+            for (int i = 0; i < items.length; i++) {
+                items[i] = items[i].toLowerCase(Locale.ROOT);
+            }
+            return items;
+        }
+
+        /**
+         * Items and their search keys
+         */
+        private static final class Keyed {
+            @NotNull
+            private final String[] items;
+            @NotNull
+            private final String[] keys;
+
+            private Keyed(@NotNull String[] items, @NotNull String[] keys) {
+                this.items = items;
+                this.keys = keys;
+            }
+        }
+
+    }
+
+}
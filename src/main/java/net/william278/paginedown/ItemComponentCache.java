@@ -0,0 +1,70 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A bounded, least-recently-used cache of the {@link Component}s rendered from items, keyed by item content
+ * <p>
+ * When a page is rendered again after some of its items change, only the changed items are rendered; unchanged
+ * items, including those that moved to another position or page, reuse their cached component.
+ */
+final class ItemComponentCache {
+
+    private final Map<String, Component> components;
+
+    ItemComponentCache(final int capacity) {
+        this.components = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Component> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached component of an item, rendering and caching it if it is not cached
+     *
+     * @param item     The item
+     * @param renderer Renders the component of an item
+     * @return The item component
+     */
+    @NotNull
+    Component get(@NotNull String item, @NotNull Function<String, Component> renderer) {
+        synchronized (components) {
+            final Component cached = components.get(item);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final Component rendered = renderer.apply(item);
+        synchronized (components) {
+            components.put(item, rendered);
+        }
+        return rendered;
+    }
+
+}
@@ -20,174 +20,618 @@
 package net.william278.paginedown;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.awt.*;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 /**
  * Options, including placeholder strings, used to generate a {@link PaginatedList} of items
+ * <p>
+ * Options are immutable once built, and options with equal formats share one set of compiled templates, so a set
+ * of options can be shared freely between lists and threads.
  */
 public class ListOptions {
 
     @NotNull
-    protected String headerFormat = "[Viewing %topic%](%color%) [(%first_item_on_page_index%-%last_item_on_page_index% of](%color%) [%total_items%](%color% bold)[)](%color%)";
+    protected final String headerFormat;
     @NotNull
-    protected String footerFormat = "%previous_page_button%Page [%current_page%](%color%)/[%total_pages%](%color%)%next_page_button%   %page_jumpers%";
+    protected final String footerFormat;
     @NotNull
-    protected String previousButtonFormat = "[◁](white show_text=%color%View previous page \\(%previous_page_index%\\) run_command=/%command% %previous_page_index%) ";
+    protected final String previousButtonFormat;
     @NotNull
-    protected String nextButtonFormat = " [▷](white show_text=%color%View next page \\(%next_page_index%\\) run_command=/%command% %next_page_index%)";
+    protected final String nextButtonFormat;
     @NotNull
-    protected String pageJumpersFormat = "(%page_jump_buttons%)";
+    protected final String pageJumpersFormat;
     @NotNull
-    protected String pageJumperPageSeparator = "|";
+    protected final String pageJumperPageSeparator;
     @NotNull
-    protected String pageJumperGroupSeparator = "…";
+    protected final String pageJumperGroupSeparator;
     @NotNull
-    protected String pageJumperCurrentPageFormat = "[%current_page%](%color%)";
+    protected final String pageJumperCurrentPageFormat;
     @NotNull
-    protected String pageJumperPageFormat = "[%target_page_index%](show_text=&7Jump to page %target_page_index% run_command=/%command% %target_page_index%)";
+    protected final String pageJumperPageFormat;
     @NotNull
-    protected String topic = "List";
+    protected final String topic;
     @NotNull
-    protected String command = "example";
+    protected final String command;
     @NotNull
-    protected Color themeColor = new Color(0x00fb9a);
-    protected boolean spaceAfterHeader = true;
-    protected boolean spaceBeforeFooter = true;
-    protected boolean escapeItemsMineDown = true;
+    protected final Color themeColor;
+    protected final boolean spaceAfterHeader;
+    protected final boolean spaceBeforeFooter;
+    protected final boolean escapeItemsMineDown;
     @NotNull
-    protected String itemSeparator = "\n";
-    protected int itemsPerPage = 10;
+    protected final String itemSeparator;
+    protected final int itemsPerPage;
 
-    protected int pageJumperStartButtons = 3;
+    protected final int pageCharacterBudget;
 
-    protected int pageJumperEndButtons = 3;
+    protected final int pageLineBudget;
 
-    private ListOptions() {
+    protected final int pageJumperStartButtons;
+
+    protected final int pageJumperEndButtons;
+
+    protected final int pageCacheSize;
+
+    protected final int formattedItemCacheSize;
+
+    protected final int itemComponentCacheSize;
+
+    protected final int readAheadPages;
+    protected final long readAheadExpiryNanos;
+
+    @Nullable
+    protected final Executor renderExecutor;
+    protected final boolean virtualThreadRendering;
+
+    @Nullable
+    protected final RenderListener renderListener;
+
+    @NotNull
+    protected final Map<String, String> constantPlaceholders;
+    @NotNull
+    protected final Map<String, Supplier<String>> listPlaceholders;
+    @NotNull
+    protected final Map<String, IntFunction<String>> pagePlaceholders;
+
+    // Custom placeholders resolved per list and per page, indexed by the ids compiled into templates
+    final List<String> listPlaceholderNames;
+    final List<Supplier<String>> listPlaceholderSuppliers;
+    final List<String> pagePlaceholderNames;
+    final List<IntFunction<String>> pagePlaceholderFunctions;
+
+    // Formats compiled once per distinct set of format options, and shared between equal options
+    @NotNull
+    private final CompiledTemplates compiled;
+    final FormatTemplate headerTemplate;
+    final FormatTemplate footerTemplate;
+    final FormatTemplate pageJumperPageTemplate;
+    final FormatTemplate pageJumperCurrentPageTemplate;
+    final boolean chromeDependsOnTotals;
+    final int chromeLengthEstimate;
+
+    private ListOptions(@NotNull Builder builder) {
+        this.headerFormat = builder.headerFormat;
+        this.footerFormat = builder.footerFormat;
+        this.previousButtonFormat = builder.previousButtonFormat;
+        this.nextButtonFormat = builder.nextButtonFormat;
+        this.pageJumpersFormat = builder.pageJumpersFormat;
+        this.pageJumperPageSeparator = builder.pageJumperPageSeparator;
+        this.pageJumperGroupSeparator = builder.pageJumperGroupSeparator;
+        this.pageJumperCurrentPageFormat = builder.pageJumperCurrentPageFormat;
+        this.pageJumperPageFormat = builder.pageJumperPageFormat;
+        this.topic = builder.topic;
+        this.command = builder.command;
+        this.themeColor = builder.themeColor;
+        this.spaceAfterHeader = builder.spaceAfterHeader;
+        this.spaceBeforeFooter = builder.spaceBeforeFooter;
+        this.escapeItemsMineDown = builder.escapeItemsMineDown;
+        this.itemSeparator = builder.itemSeparator;
+        this.itemsPerPage = builder.itemsPerPage;
+        this.pageCharacterBudget = builder.pageCharacterBudget;
+        this.pageLineBudget = builder.pageLineBudget;
+        this.pageJumperStartButtons = builder.pageJumperStartButtons;
+        this.pageJumperEndButtons = builder.pageJumperEndButtons;
+        this.pageCacheSize = builder.pageCacheSize;
+        this.formattedItemCacheSize = builder.formattedItemCacheSize;
+        this.itemComponentCacheSize = builder.itemComponentCacheSize;
+        this.readAheadPages = builder.readAheadPages;
+        this.readAheadExpiryNanos = builder.readAheadExpiryNanos;
+        this.renderExecutor = builder.renderExecutor;
+        this.virtualThreadRendering = builder.virtualThreadRendering;
+        this.renderListener = builder.renderListener;
+        this.constantPlaceholders = Collections.unmodifiableMap(new TreeMap<>(builder.constantPlaceholders));
+        this.listPlaceholders = Collections.unmodifiableMap(new TreeMap<>(builder.listPlaceholders));
+        this.pagePlaceholders = Collections.unmodifiableMap(new TreeMap<>(builder.pagePlaceholders));
+        this.listPlaceholderNames = List.copyOf(listPlaceholders.keySet());
+        this.listPlaceholderSuppliers = List.copyOf(listPlaceholders.values());
+        this.pagePlaceholderNames = List.copyOf(pagePlaceholders.keySet());
+        this.pagePlaceholderFunctions = List.copyOf(pagePlaceholders.values());
+
+        this.compiled = CompiledTemplates.intern(this);
+        this.headerTemplate = compiled.headerTemplate;
+        this.footerTemplate = compiled.footerTemplate;
+        this.pageJumperPageTemplate = compiled.pageJumperPageTemplate;
+        this.pageJumperCurrentPageTemplate = compiled.pageJumperCurrentPageTemplate;
+        this.chromeDependsOnTotals = compiled.chromeDependsOnTotals;
+        this.chromeLengthEstimate = compiled.chromeLengthEstimate;
+    }
+
+    /**
+     * Returns the parsed {@link net.kyori.adventure.text.Component} chrome for these options
+     *
+     * @return The component templates
+     */
+    @NotNull
+    ComponentTemplates getComponentTemplates() {
+        return compiled.getComponentTemplates(this);
+    }
+
+    /**
+     * Resolves the values of the custom placeholders resolved once per list
+     *
+     * @return The value of each per-list placeholder, by id
+     */
+    @NotNull
+    String[] resolveListPlaceholders() {
+        final String[] values = new String[listPlaceholderSuppliers.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = listPlaceholderSuppliers.get(i).get();
+        }
+        return values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ListOptions)) {
+            return false;
+        }
+        final ListOptions that = (ListOptions) o;
+        return headerFormat.equals(that.headerFormat)
+                && footerFormat.equals(that.footerFormat)
+                && previousButtonFormat.equals(that.previousButtonFormat)
+                && nextButtonFormat.equals(that.nextButtonFormat)
+                && pageJumpersFormat.equals(that.pageJumpersFormat)
+                && pageJumperPageSeparator.equals(that.pageJumperPageSeparator)
+                && pageJumperGroupSeparator.equals(that.pageJumperGroupSeparator)
+                && pageJumperCurrentPageFormat.equals(that.pageJumperCurrentPageFormat)
+                && pageJumperPageFormat.equals(that.pageJumperPageFormat)
+                && topic.equals(that.topic)
+                && command.equals(that.command)
+                && themeColor.equals(that.themeColor)
+                && spaceAfterHeader == that.spaceAfterHeader
+                && spaceBeforeFooter == that.spaceBeforeFooter
+                && escapeItemsMineDown == that.escapeItemsMineDown
+                && itemSeparator.equals(that.itemSeparator)
+                && itemsPerPage == that.itemsPerPage
+                && pageCharacterBudget == that.pageCharacterBudget
+                && pageLineBudget == that.pageLineBudget
+                && pageJumperStartButtons == that.pageJumperStartButtons
+                && pageJumperEndButtons == that.pageJumperEndButtons
+                && pageCacheSize == that.pageCacheSize
+                && formattedItemCacheSize == that.formattedItemCacheSize
+                && itemComponentCacheSize == that.itemComponentCacheSize
+                && readAheadPages == that.readAheadPages
+                && readAheadExpiryNanos == that.readAheadExpiryNanos
+                && Objects.equals(renderExecutor, that.renderExecutor)
+                && virtualThreadRendering == that.virtualThreadRendering
+                && Objects.equals(renderListener, that.renderListener)
+                && constantPlaceholders.equals(that.constantPlaceholders)
+                && listPlaceholders.equals(that.listPlaceholders)
+                && pagePlaceholders.equals(that.pagePlaceholders);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(headerFormat, footerFormat, previousButtonFormat, nextButtonFormat, pageJumpersFormat,
+                pageJumperPageSeparator, pageJumperGroupSeparator, pageJumperCurrentPageFormat, pageJumperPageFormat,
+                topic, command, themeColor, spaceAfterHeader, spaceBeforeFooter, escapeItemsMineDown, itemSeparator,
+                itemsPerPage, pageCharacterBudget, pageLineBudget, pageJumperStartButtons, pageJumperEndButtons,
+                pageCacheSize, formattedItemCacheSize, itemComponentCacheSize, readAheadPages, readAheadExpiryNanos,
+                renderExecutor, virtualThreadRendering, renderListener, constantPlaceholders, listPlaceholders,
+                pagePlaceholders);
     }
 
     @SuppressWarnings("unused")
     public static class Builder {
         @NotNull
-        private final ListOptions options = new ListOptions();
+        private String headerFormat = "[Viewing %topic%](%color%) [(%first_item_on_page_index%-%last_item_on_page_index% of](%color%) [%total_items%](%color% bold)[)](%color%)";
+        @NotNull
+        private String footerFormat = "%previous_page_button%Page [%current_page%](%color%)/[%total_pages%](%color%)%next_page_button%   %page_jumpers%";
+        @NotNull
+        private String previousButtonFormat = "[◁](white show_text=%color%View previous page \\(%previous_page_index%\\) run_command=/%command% %previous_page_index%) ";
+        @NotNull
+        private String nextButtonFormat = " [▷](white show_text=%color%View next page \\(%next_page_index%\\) run_command=/%command% %next_page_index%)";
+        @NotNull
+        private String pageJumpersFormat = "(%page_jump_buttons%)";
+        @NotNull
+        private String pageJumperPageSeparator = "|";
+        @NotNull
+        private String pageJumperGroupSeparator = "…";
+        @NotNull
+        private String pageJumperCurrentPageFormat = "[%current_page%](%color%)";
+        @NotNull
+        private String pageJumperPageFormat = "[%target_page_index%](show_text=&7Jump to page %target_page_index% run_command=/%command% %target_page_index%)";
+        @NotNull
+        private String topic = "List";
+        @NotNull
+        private String command = "example";
+        @NotNull
+        private Color themeColor = new Color(0x00fb9a);
+        private boolean spaceAfterHeader = true;
+        private boolean spaceBeforeFooter = true;
+        private boolean escapeItemsMineDown = true;
+        @NotNull
+        private String itemSeparator = "\n";
+        private int itemsPerPage = 10;
+
+        private int pageCharacterBudget = 0;
+
+        private int pageLineBudget = 0;
+
+        private int pageJumperStartButtons = 3;
+
+        private int pageJumperEndButtons = 3;
+
+        private int pageCacheSize = 0;
+
+        private int formattedItemCacheSize = 0;
+
+        private int itemComponentCacheSize = 0;
+
+        private int readAheadPages = 0;
+
+        private long readAheadExpiryNanos = Duration.ofSeconds(5).toNanos();
+
+        @Nullable
+        private Executor renderExecutor = null;
+        private boolean virtualThreadRendering = false;
+
+        @Nullable
+        private RenderListener renderListener = null;
+
+        private final Map<String, String> constantPlaceholders = new TreeMap<>();
+        private final Map<String, Supplier<String>> listPlaceholders = new TreeMap<>();
+        private final Map<String, IntFunction<String>> pagePlaceholders = new TreeMap<>();
 
         @NotNull
         public Builder setHeaderFormat(@NotNull String headerFormat) {
-            options.headerFormat = headerFormat;
+            this.headerFormat = headerFormat;
             return this;
         }
 
         @NotNull
         public Builder setFooterFormat(@NotNull String footerFormat) {
-            options.footerFormat = footerFormat;
+            this.footerFormat = footerFormat;
             return this;
         }
 
         @NotNull
         public Builder setItemSeparator(@NotNull String itemSeparator) {
-            options.itemSeparator = itemSeparator;
+            this.itemSeparator = itemSeparator;
             return this;
         }
 
         @NotNull
         public Builder setThemeColor(@NotNull Color themeColor) {
-            options.themeColor = themeColor;
+            this.themeColor = themeColor;
             return this;
         }
 
         @NotNull
         public Builder setSpaceAfterHeader(final boolean spaceAfterHeader) {
-            options.spaceAfterHeader = spaceAfterHeader;
+            this.spaceAfterHeader = spaceAfterHeader;
             return this;
         }
 
         @NotNull
         public Builder setSpaceBeforeFooter(final boolean spaceBeforeFooter) {
-            options.spaceBeforeFooter = spaceBeforeFooter;
+            this.spaceBeforeFooter = spaceBeforeFooter;
             return this;
         }
 
         @NotNull
         public Builder setItemsPerPage(final int itemsPerPage) {
-            options.itemsPerPage = itemsPerPage;
+            this.itemsPerPage = itemsPerPage;
             return this;
         }
 
         @NotNull
         public Builder setTopic(@NotNull String topic) {
-            options.topic = topic;
+            this.topic = topic;
             return this;
         }
 
         @NotNull
         public Builder setCommand(@NotNull String command) {
-            options.command = command;
+            this.command = command;
             return this;
         }
 
         @NotNull
         public Builder setEscapeItemsMineDown(final boolean escapeItemsMineDown) {
-            options.escapeItemsMineDown = escapeItemsMineDown;
+            this.escapeItemsMineDown = escapeItemsMineDown;
             return this;
         }
 
         @NotNull
         public Builder setPageJumpersFormat(@NotNull String pageJumpersFormat) {
-            options.pageJumpersFormat = pageJumpersFormat;
+            this.pageJumpersFormat = pageJumpersFormat;
             return this;
         }
 
         @NotNull
         public Builder setPageJumperPageSeparator(@NotNull String pageJumperPageSeparator) {
-            options.pageJumperPageSeparator = pageJumperPageSeparator;
+            this.pageJumperPageSeparator = pageJumperPageSeparator;
             return this;
         }
 
         @NotNull
         public Builder setPageJumperPageFormat(@NotNull String pageJumperPageFormat) {
-            options.pageJumperPageFormat = pageJumperPageFormat;
+            this.pageJumperPageFormat = pageJumperPageFormat;
             return this;
         }
 
         @NotNull
         public Builder setPageJumperGroupSeparator(@NotNull String pageJumperGroupSeparator) {
-            options.pageJumperGroupSeparator = pageJumperGroupSeparator;
+            this.pageJumperGroupSeparator = pageJumperGroupSeparator;
             return this;
         }
 
         @NotNull
         public Builder setPageJumperCurrentPageFormat(@NotNull String pageJumperCurrentPageFormat) {
-            options.pageJumperCurrentPageFormat = pageJumperCurrentPageFormat;
+            this.pageJumperCurrentPageFormat = pageJumperCurrentPageFormat;
             return this;
         }
 
         @NotNull
         public Builder setPreviousButtonFormat(@NotNull String previousButtonFormat) {
-            options.previousButtonFormat = previousButtonFormat;
+            this.previousButtonFormat = previousButtonFormat;
             return this;
         }
 
         @NotNull
         public Builder setNextButtonFormat(@NotNull String nextButtonFormat) {
-            options.nextButtonFormat = nextButtonFormat;
+            this.nextButtonFormat = nextButtonFormat;
             return this;
         }
 
         @NotNull
         public Builder setPageJumperStartButtons(final int pageJumperStartButtons) {
-            options.pageJumperStartButtons = pageJumperStartButtons;
+            this.pageJumperStartButtons = pageJumperStartButtons;
             return this;
         }
 
         @NotNull
         public Builder setPageJumperEndButtons(final int pageJumperEndButtons) {
-            options.pageJumperEndButtons = pageJumperEndButtons;
+            this.pageJumperEndButtons = pageJumperEndButtons;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of characters of items to fill each page with, instead of a fixed number of items
+         * per page. Each item counts as its raw length plus the item separator, and every page shows at least one
+         * item. Defaults to {@code 0}, which disables the character budget.
+         *
+         * @param pageCharacterBudget The maximum number of item characters per page
+         * @return The builder
+         * @see #setPageLineBudget(int)
+         */
+        @NotNull
+        public Builder setPageCharacterBudget(final int pageCharacterBudget) {
+            this.pageCharacterBudget = pageCharacterBudget;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of lines of items to fill each page with, instead of a fixed number of items per
+         * page. Each item counts as at least one line, plus one line for each line break it contains, and every page
+         * shows at least one item. Defaults to {@code 0}, which disables the line budget.
+         *
+         * @param pageLineBudget The maximum number of item lines per page
+         * @return The builder
+         * @see #setPageCharacterBudget(int)
+         */
+        @NotNull
+        public Builder setPageLineBudget(final int pageLineBudget) {
+            this.pageLineBudget = pageLineBudget;
+            return this;
+        }
+
+        /**
+         * Set the number of rendered pages each {@link PaginatedList} keeps cached, evicting the least recently used
+         * page when full. Defaults to {@code 0}, which disables the page cache.
+         *
+         * @param pageCacheSize The maximum number of cached pages
+         * @return The builder
+         */
+        @NotNull
+        public Builder setPageCacheSize(final int pageCacheSize) {
+            this.pageCacheSize = pageCacheSize;
+            return this;
+        }
+
+        /**
+         * Set the number of formatted items each {@link PaginatedList} of typed items keeps, so that items shown
+         * again are not formatted again. Formatted items are held in a fixed-size table by index, rounded up to a
+         * power of two. Defaults to {@code 0}, which formats items each time they are shown.
+         *
+         * @param formattedItemCacheSize The number of formatted items to keep
+         * @return The builder
+         * @see PaginatedList#of(List, Function, ListOptions)
+         */
+        @NotNull
+        public Builder setFormattedItemCacheSize(final int formattedItemCacheSize) {
+            this.formattedItemCacheSize = formattedItemCacheSize;
+            return this;
+        }
+
+        /**
+         * Set the number of item {@link net.kyori.adventure.text.Component}s each {@link PaginatedList} keeps,
+         * keyed by item content, so that re-rendering a page after some of its items change only renders the
+         * changed items. Suits live-updating menus, such as leaderboards, rendered with
+         * {@link PaginatedList#getComponent(int)}. Defaults to {@code 0}, which renders every item of a page.
+         *
+         * @param itemComponentCacheSize The maximum number of cached item components
+         * @return The builder
+         */
+        @NotNull
+        public Builder setItemComponentCacheSize(final int itemComponentCacheSize) {
+            this.itemComponentCacheSize = itemComponentCacheSize;
+            return this;
+        }
+
+        /**
+         * Set the number of neighbouring pages to fetch either side of each requested page when paginating a
+         * {@link PageSource}, so that the previous and next pages can be shown without another fetch.
+         * Defaults to {@code 0}, which fetches only the requested page.
+         * <p>Fetched items are kept for a few regions of the source at once, and are served until they are older than
+         * the {@link #setReadAheadExpiry(Duration) read-ahead expiry}, the source reports a different item count, or
+         * the source notifies that its items changed. Edits to a source that does not notify of changes and keeps its
+         * item count may therefore be shown up to the expiry late.
+         *
+         * @param readAheadPages The number of pages to read ahead either side of the requested page
+         * @return The builder
+         */
+        @NotNull
+        public Builder setReadAheadPages(final int readAheadPages) {
+            this.readAheadPages = readAheadPages;
+            return this;
+        }
+
+        /**
+         * Set how long items fetched ahead by {@link #setReadAheadPages(int)} are served for before they are fetched
+         * again, so that edits to the source are picked up. Defaults to {@code 5} seconds.
+         *
+         * @param readAheadExpiry How long fetched items are served for
+         * @return The builder
+         * @throws PaginationException If the expiry is not positive
+         */
+        @NotNull
+        public Builder setReadAheadExpiry(@NotNull Duration readAheadExpiry) throws PaginationException {
+            if (readAheadExpiry.isNegative() || readAheadExpiry.isZero()) {
+                throw new PaginationException("Read-ahead expiry must be > 0");
+            }
+            this.readAheadExpiryNanos = readAheadExpiry.toNanos();
             return this;
         }
 
+        /**
+         * Set the {@link Executor} that asynchronous page renders, such as {@link PaginatedList#getPageAsync(int)},
+         * run on. Defaults to the common {@link java.util.concurrent.ForkJoinPool}.
+         *
+         * @param renderExecutor The executor to render pages on
+         * @return The builder
+         */
+        @NotNull
+        public Builder setRenderExecutor(@NotNull Executor renderExecutor) {
+            this.renderExecutor = renderExecutor;
+            return this;
+        }
+
+        /**
+         * Set whether asynchronous page renders should each run on a new virtual thread, when no render executor
+         * is set. Virtual threads require Java 21+; on older runtimes this option has no effect.
+         *
+         * @param virtualThreadRendering Whether to render pages on virtual threads
+         * @return The builder
+         */
+        @NotNull
+        public Builder setVirtualThreadRendering(final boolean virtualThreadRendering) {
+            this.virtualThreadRendering = virtualThreadRendering;
+            return this;
+        }
+
+        /**
+         * Set a {@link RenderListener} to be notified with the timings of each page render, such as a shared
+         * {@link RenderStatistics}. Renders are not timed when no listener is set.
+         *
+         * @param renderListener The listener to notify of page renders
+         * @return The builder
+         */
+        @NotNull
+        public Builder setRenderListener(@NotNull RenderListener renderListener) {
+            this.renderListener = renderListener;
+            return this;
+        }
+
+        /**
+         * Register a custom {@code %placeholder%} with a constant value. Constant placeholders are substituted into
+         * the formats once, when the options are built.
+         *
+         * @param name  The placeholder name, without surrounding {@code %} characters
+         * @param value The placeholder value
+         * @return The builder
+         * @throws PaginationException If the name is that of a built-in placeholder
+         */
+        @NotNull
+        public Builder setPlaceholder(@NotNull String name, @NotNull String value) {
+            constantPlaceholders.put(registerPlaceholder(name), value);
+            return this;
+        }
+
+        /**
+         * Register a custom {@code %placeholder%} resolved once for each {@link PaginatedList} created, such as a
+         * server name or the viewer's balance
+         *
+         * @param name  The placeholder name, without surrounding {@code %} characters
+         * @param value Supplies the placeholder value when a list is created
+         * @return The builder
+         * @throws PaginationException If the name is that of a built-in placeholder
+         */
+        @NotNull
+        public Builder setListPlaceholder(@NotNull String name, @NotNull Supplier<String> value) {
+            listPlaceholders.put(registerPlaceholder(name), value);
+            return this;
+        }
+
+        /**
+         * Register a custom {@code %placeholder%} resolved each time a page is rendered, from the page number. When
+         * the page cache is enabled, the value is cached with the rendered page.
+         *
+         * @param name  The placeholder name, without surrounding {@code %} characters
+         * @param value Resolves the placeholder value for a page number
+         * @return The builder
+         * @throws PaginationException If the name is that of a built-in placeholder
+         */
+        @NotNull
+        public Builder setPagePlaceholder(@NotNull String name, @NotNull IntFunction<String> value) {
+            pagePlaceholders.put(registerPlaceholder(name), value);
+            return this;
+        }
+
+        // Validates a custom placeholder name, removing any placeholder already registered with it
+        @NotNull
+        private String registerPlaceholder(@NotNull String name) {
+            final String placeholder = name.toLowerCase();
+            if (placeholder.isEmpty() || placeholder.indexOf('%') >= 0) {
+                throw new PaginationException("Invalid placeholder name: " + name);
+            }
+            if (FormatTemplate.isBuiltIn(placeholder)) {
+                throw new PaginationException("Cannot replace the built-in placeholder %" + placeholder + "%");
+            }
+            constantPlaceholders.remove(placeholder);
+            listPlaceholders.remove(placeholder);
+            pagePlaceholders.remove(placeholder);
+            return placeholder;
+        }
+
         @NotNull
         public ListOptions build() {
-            return options;
+            return new ListOptions(this);
         }
     }
 }
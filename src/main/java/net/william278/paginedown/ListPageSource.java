@@ -0,0 +1,49 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A {@link PageSource} backed by an in-memory {@link List}
+ */
+final class ListPageSource implements PageSource {
+
+    @NotNull
+    private final List<String> items;
+
+    ListPageSource(@NotNull List<String> items) {
+        this.items = items;
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @NotNull
+    @Override
+    public List<String> getItems(int offset, int limit) {
+        return items.subList(offset, Math.min(items.size(), offset + limit));
+    }
+
+}
@@ -0,0 +1,344 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A mutable {@link PageSource} that can be changed while {@link PaginatedList}s are rendering it
+ * <p>
+ * Items are held in copy-on-write chunks: each change copies only the chunk it touches and publishes a new
+ * immutable snapshot, so pages always render from a consistent snapshot and never observe a change part-way
+ * through. Lists paginating this source are notified of each change, and only drop the cached pages it affects.
+ */
+@SuppressWarnings("unused")
+public final class LivePageSource implements PageSource {
+
+    // Chunks are split when they grow to twice this size
+    private static final int CHUNK_SIZE = 256;
+
+    @NotNull
+    private volatile Snapshot snapshot = new Snapshot(new String[0][], new int[0], 0);
+    private final List<WeakReference<ChangeListener>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Create a new, empty {@link LivePageSource}
+     */
+    public LivePageSource() {
+    }
+
+    /**
+     * Create a new {@link LivePageSource} containing the given items
+     *
+     * @param items The initial items
+     */
+    public LivePageSource(@NotNull Collection<String> items) {
+        final String[] all = items.toArray(new String[0]);
+        final int chunkCount = (all.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final String[][] chunks = new String[chunkCount][];
+        final int[] starts = new int[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            starts[i] = i * CHUNK_SIZE;
+            chunks[i] = Arrays.copyOfRange(all, starts[i], Math.min(all.length, starts[i] + CHUNK_SIZE));
+        }
+        this.snapshot = new Snapshot(chunks, starts, all.length);
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size;
+    }
+
+    @NotNull
+    @Override
+    public List<String> getItems(int offset, int limit) {
+        return snapshot.getItems(offset, limit);
+    }
+
+    /**
+     * Returns an immutable snapshot of the current items
+     *
+     * @return The snapshot
+     */
+    @NotNull
+    @Override
+    public PageSource snapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public void addChangeListener(@NotNull ChangeListener listener) {
+        listeners.add(new WeakReference<>(listener));
+    }
+
+    /**
+     * Returns the item at an index
+     *
+     * @param index The index of the item
+     * @return The item
+     * @throws IndexOutOfBoundsException If the index is out of bounds
+     */
+    @NotNull
+    public String get(final int index) {
+        final Snapshot current = snapshot;
+        Objects.checkIndex(index, current.size);
+        final int chunk = current.chunkOf(index);
+        return current.chunks[chunk][index - current.starts[chunk]];
+    }
+
+    /**
+     * Append an item to the end of the source
+     *
+     * @param item The item to append
+     */
+    public void add(@NotNull String item) {
+        final int index;
+        synchronized (this) {
+            index = snapshot.size;
+            insert(index, item);
+        }
+        notifyListeners(index, index + 1, true);
+    }
+
+    /**
+     * Insert an item at an index, shifting the item at that index and any later items along
+     *
+     * @param index The index to insert the item at
+     * @param item  The item to insert
+     * @throws IndexOutOfBoundsException If the index is out of bounds
+     */
+    public void add(final int index, @NotNull String item) {
+        final int size;
+        synchronized (this) {
+            Objects.checkIndex(index, snapshot.size + 1);
+            insert(index, item);
+            size = snapshot.size;
+        }
+        notifyListeners(index, size, true);
+    }
+
+    /**
+     * Replace the item at an index
+     *
+     * @param index The index of the item to replace
+     * @param item  The new item
+     * @return The replaced item
+     * @throws IndexOutOfBoundsException If the index is out of bounds
+     */
+    @NotNull
+    public String set(final int index, @NotNull String item) {
+        final String replaced;
+        synchronized (this) {
+            final Snapshot current = snapshot;
+            Objects.checkIndex(index, current.size);
+            final int chunk = current.chunkOf(index);
+            final String[] items = current.chunks[chunk].clone();
+            replaced = items[index - current.starts[chunk]];
+            items[index - current.starts[chunk]] = item;
+            final String[][] chunks = current.chunks.clone();
+            chunks[chunk] = items;
+            snapshot = new Snapshot(chunks, current.starts, current.size);
+        }
+        notifyListeners(index, index + 1, false);
+        return replaced;
+    }
+
+    /**
+     * Remove the item at an index, shifting any later items back
+     *
+     * @param index The index of the item to remove
+     * @return The removed item
+     * @throws IndexOutOfBoundsException If the index is out of bounds
+     */
+    @NotNull
+    public String remove(final int index) {
+        final String removed;
+        final int size;
+        synchronized (this) {
+            final Snapshot current = snapshot;
+            Objects.checkIndex(index, current.size);
+            size = current.size;
+            final int chunk = current.chunkOf(index);
+            final String[] items = current.chunks[chunk];
+            final int position = index - current.starts[chunk];
+            removed = items[position];
+
+            final String[][] chunks;
+            final int[] starts;
+            if (items.length == 1) {
+                chunks = removeAt(current.chunks, chunk);
+                starts = removeAt(current.starts, chunk);
+                shiftStarts(starts, chunk, -1);
+            } else {
+                final String[] shrunk = new String[items.length - 1];
+                System.arraycopy(items, 0, shrunk, 0, position);
+                System.arraycopy(items, position + 1, shrunk, position, items.length - position - 1);
+                chunks = current.chunks.clone();
+                chunks[chunk] = shrunk;
+                starts = current.starts.clone();
+                shiftStarts(starts, chunk + 1, -1);
+            }
+            snapshot = new Snapshot(chunks, starts, current.size - 1);
+        }
+        notifyListeners(index, size, true);
+        return removed;
+    }
+
+    // Inserts an item, publishing a new snapshot; must be called while synchronized
+    private void insert(final int index, @NotNull String item) {
+        final Snapshot current = snapshot;
+        if (current.chunks.length == 0) {
+            snapshot = new Snapshot(new String[][]{{item}}, new int[]{0}, 1);
+            return;
+        }
+        final int chunk = index == current.size ? current.chunks.length - 1 : current.chunkOf(index);
+        final String[] items = current.chunks[chunk];
+        final int position = index - current.starts[chunk];
+
+        // Appends to a full chunk start a new chunk
+        if (index == current.size && items.length >= CHUNK_SIZE) {
+            final String[][] chunks = Arrays.copyOf(current.chunks, current.chunks.length + 1);
+            chunks[chunks.length - 1] = new String[]{item};
+            final int[] starts = Arrays.copyOf(current.starts, current.starts.length + 1);
+            starts[starts.length - 1] = index;
+            snapshot = new Snapshot(chunks, starts, current.size + 1);
+            return;
+        }
+
+        final String[] grown = new String[items.length + 1];
+        System.arraycopy(items, 0, grown, 0, position);
+        grown[position] = item;
+        System.arraycopy(items, position, grown, position + 1, items.length - position);
+
+        final String[][] chunks;
+        final int[] starts;
+        if (grown.length >= CHUNK_SIZE * 2) {
+            // Split oversized chunks in two
+            final int half = grown.length / 2;
+            chunks = new String[current.chunks.length + 1][];
+            System.arraycopy(current.chunks, 0, chunks, 0, chunk);
+            chunks[chunk] = Arrays.copyOfRange(grown, 0, half);
+            chunks[chunk + 1] = Arrays.copyOfRange(grown, half, grown.length);
+            System.arraycopy(current.chunks, chunk + 1, chunks, chunk + 2, current.chunks.length - chunk - 1);
+            starts = new int[current.starts.length + 1];
+            System.arraycopy(current.starts, 0, starts, 0, chunk + 1);
+            starts[chunk + 1] = current.starts[chunk] + half;
+            System.arraycopy(current.starts, chunk + 1, starts, chunk + 2, current.starts.length - chunk - 1);
+            shiftStarts(starts, chunk + 2, 1);
+        } else {
+            chunks = current.chunks.clone();
+            chunks[chunk] = grown;
+            starts = current.starts.clone();
+            shiftStarts(starts, chunk + 1, 1);
+        }
+        snapshot = new Snapshot(chunks, starts, current.size + 1);
+    }
+
+    private void notifyListeners(final int fromIndex, final int toIndex, final boolean resized) {
+        for (WeakReference<ChangeListener> reference : listeners) {
+            final ChangeListener listener = reference.get();
+            if (listener == null) {
+                listeners.remove(reference);
+                continue;
+            }
+            listener.onItemsChanged(fromIndex, toIndex, resized);
+        }
+    }
+
+    private static void shiftStarts(@NotNull int[] starts, final int from, final int shift) {
+        for (int i = from; i < starts.length; i++) {
+            starts[i] += shift;
+        }
+    }
+
+    @NotNull
+    private static String[][] removeAt(@NotNull String[][] array, final int index) {
+        final String[][] removed = new String[array.length - 1][];
+        System.arraycopy(array, 0, removed, 0, index);
+        System.arraycopy(array, index + 1, removed, index, array.length - index - 1);
+        return removed;
+    }
+
+    @NotNull
+    private static int[] removeAt(@NotNull int[] array, final int index) {
+        final int[] removed = new int[array.length - 1];
+        System.arraycopy(array, 0, removed, 0, index);
+        System.arraycopy(array, index + 1, removed, index, array.length - index - 1);
+        return removed;
+    }
+
+    /**
+     * An immutable snapshot of the items in a {@link LivePageSource}
+     */
+    private static final class Snapshot implements PageSource {
+        @NotNull
+        private final String[][] chunks;
+        // The index of the first item in each chunk
+        @NotNull
+        private final int[] starts;
+        private final int size;
+
+        private Snapshot(@NotNull String[][] chunks, @NotNull int[] starts, final int size) {
+            this.chunks = chunks;
+            this.starts = starts;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @NotNull
+        @Override
+        public List<String> getItems(int offset, int limit) {
+            final int end = Math.min(size, offset + limit);
+            if (offset >= end) {
+                return Collections.emptyList();
+            }
+            final String[] items = new String[end - offset];
+            int chunk = chunkOf(offset);
+            int copied = 0;
+            while (copied < items.length) {
+                final int from = offset + copied - starts[chunk];
+                final int count = Math.min(chunks[chunk].length - from, items.length - copied);
+                System.arraycopy(chunks[chunk], from, items, copied, count);
+                copied += count;
+                chunk++;
+            }
+            return Collections.unmodifiableList(Arrays.asList(items));
+        }
+
+        // Returns the chunk containing the item at an index
+        private int chunkOf(final int index) {
+            final int found = Arrays.binarySearch(starts, index);
+            return found >= 0 ? found : -found - 2;
+        }
+    }
+
+}
@@ -0,0 +1,321 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link PageSource} of the lines of a text file, read from a memory-mapped view of the file
+ * <p>
+ * The file is indexed once when opened, recording where every 64th line starts, so the index of a file with
+ * millions of lines stays small. Fetching a page scans forward from the nearest indexed line and decodes only the
+ * lines on the page. Files that are still being written to, such as logs, can be {@link #refresh() refreshed} to
+ * index only the lines appended since; a file that shrinks is indexed again from the start.
+ * <p>
+ * Line terminators ({@code \n} or {@code \r\n}) are not included in items. A final line without a terminator is
+ * included as an item.
+ */
+public final class MappedFilePageSource implements PageSource, Closeable {
+
+    // Every line whose index is a multiple of this has its start recorded
+    private static final int INDEX_INTERVAL = 64;
+    private static final int INDEX_SHIFT = 6;
+
+    // Files are mapped in regions of this size, as a single mapping may not exceed 2 GiB
+    private static final int REGION_SHIFT = 30;
+    private static final long REGION_MASK = (1L << REGION_SHIFT) - 1;
+
+    @NotNull
+    private final FileChannel channel;
+    @NotNull
+    private final Charset charset;
+    @NotNull
+    private volatile Index index = new Index(new MappedByteBuffer[0], new long[0], 0, 0, 0);
+    // The view of the current index, the same instance for as long as the index is unchanged
+    @Nullable
+    private volatile IndexSnapshot snapshot;
+    private final List<WeakReference<ChangeListener>> listeners = new CopyOnWriteArrayList<>();
+
+    private MappedFilePageSource(@NotNull FileChannel channel, @NotNull Charset charset) {
+        this.channel = channel;
+        this.charset = charset;
+    }
+
+    /**
+     * Open a UTF-8 text file, mapping and indexing its lines
+     *
+     * @param file The path of the file
+     * @return A new {@link MappedFilePageSource}
+     * @throws IOException If the file could not be opened or read
+     */
+    @NotNull
+    public static MappedFilePageSource open(@NotNull Path file) throws IOException {
+        return open(file, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Open a text file, mapping and indexing its lines
+     *
+     * @param file    The path of the file
+     * @param charset The charset of the file; must encode {@code \n} and {@code \r} as single bytes
+     * @return A new {@link MappedFilePageSource}
+     * @throws IOException If the file could not be opened or read
+     */
+    @NotNull
+    public static MappedFilePageSource open(@NotNull Path file, @NotNull Charset charset) throws IOException {
+        final MappedFilePageSource source = new MappedFilePageSource(FileChannel.open(file, StandardOpenOption.READ),
+                charset);
+        try {
+            source.refresh();
+        } catch (IOException e) {
+            source.close();
+            throw e;
+        }
+        return source;
+    }
+
+    /**
+     * Index lines appended to the file since it was last indexed, notifying lists paginating this source
+     *
+     * @return Whether the file had changed size
+     * @throws IOException If the file could not be read
+     */
+    public synchronized boolean refresh() throws IOException {
+        final Index current = index;
+        final long fileSize = channel.size();
+        if (fileSize == current.fileSize) {
+            return false;
+        }
+        final boolean shrunk = fileSize < current.fileSize;
+        final Index updated = shrunk
+                ? new Index(new MappedByteBuffer[0], new long[0], 0, 0, 0).extend(channel, fileSize)
+                : current.extend(channel, fileSize);
+        index = updated;
+        // The previously last line may have been unterminated and since extended
+        final int from = shrunk ? 0 : Math.max(0, current.size() - 1);
+        notifyListeners(from, Math.max(current.size(), updated.size()));
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @NotNull
+    @Override
+    public List<String> getItems(int offset, int limit) {
+        return index.getItems(offset, limit, charset);
+    }
+
+    /**
+     * Returns a view of the lines indexed when this is called, so that a page renders consistently while the
+     * file is refreshed
+     *
+     * @return A view of the currently indexed lines
+     */
+    @NotNull
+    @Override
+    public PageSource snapshot() {
+        final Index current = index;
+        IndexSnapshot snapshot = this.snapshot;
+        if (snapshot == null || snapshot.index != current) {
+            snapshot = new IndexSnapshot(current);
+            this.snapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void addChangeListener(@NotNull ChangeListener listener) {
+        listeners.add(new WeakReference<>(listener));
+    }
+
+    /**
+     * Close the file. Mapped regions are released once they are no longer referenced.
+     *
+     * @throws IOException If the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void notifyListeners(final int fromIndex, final int toIndex) {
+        for (WeakReference<ChangeListener> reference : listeners) {
+            final ChangeListener listener = reference.get();
+            if (listener == null) {
+                listeners.remove(reference);
+                continue;
+            }
+            listener.onItemsChanged(fromIndex, toIndex, true);
+        }
+    }
+
+    /**
+     * An immutable index of the lines in the mapped file up to a size
+     */
+    private static final class Index {
+        private final MappedByteBuffer[] regions;
+        // The start of every INDEX_INTERVAL-th line; entries beyond those for this index's lines may be shared
+        // with later indexes
+        private final long[] lineStarts;
+        private final long fileSize;
+        // The number of terminated lines, and the position after the last terminator
+        private final int terminatedLines;
+        private final long terminatedEnd;
+
+        private Index(@NotNull MappedByteBuffer[] regions, @NotNull long[] lineStarts, final long fileSize,
+                      final int terminatedLines, final long terminatedEnd) {
+            this.regions = regions;
+            this.lineStarts = lineStarts;
+            this.fileSize = fileSize;
+            this.terminatedLines = terminatedLines;
+            this.terminatedEnd = terminatedEnd;
+        }
+
+        private int size() {
+            return terminatedLines + (terminatedEnd < fileSize ? 1 : 0);
+        }
+
+        // Map and index the file up to a larger size, scanning only bytes after the last terminator
+        @NotNull
+        private Index extend(@NotNull FileChannel channel, final long fileSize) throws IOException {
+            final int regionCount = (int) ((fileSize + REGION_MASK) >>> REGION_SHIFT);
+            final MappedByteBuffer[] mapped = Arrays.copyOf(regions, regionCount);
+            for (int i = Math.max(0, regions.length - 1); i < regionCount; i++) {
+                final long start = (long) i << REGION_SHIFT;
+                mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(fileSize - start, REGION_MASK + 1));
+            }
+
+            long[] starts = lineStarts;
+            int lines = terminatedLines;
+            long end = terminatedEnd;
+            if (lines == 0 && starts.length == 0) {
+                starts = new long[16];
+            }
+            for (long position = terminatedEnd; position < fileSize; ) {
+                final MappedByteBuffer region = mapped[(int) (position >>> REGION_SHIFT)];
+                final int regionEnd = (int) Math.min(fileSize - (position & ~REGION_MASK), region.limit());
+                for (int i = (int) (position & REGION_MASK); i < regionEnd; i++) {
+                    if (region.get(i) != '\n') {
+                        continue;
+                    }
+                    lines++;
+                    end = (position & ~REGION_MASK) + i + 1;
+                    if ((lines & (INDEX_INTERVAL - 1)) == 0) {
+                        final int slot = lines >>> INDEX_SHIFT;
+                        if (slot >= starts.length) {
+                            starts = Arrays.copyOf(starts, starts.length * 2);
+                        }
+                        starts[slot] = end;
+                    }
+                }
+                position = (position & ~REGION_MASK) + regionEnd;
+            }
+            return new Index(mapped, starts, fileSize, lines, end);
+        }
+
+        @NotNull
+        private List<String> getItems(final int offset, final int limit, @NotNull Charset charset) {
+            final int end = Math.min(size(), offset + limit);
+            final String[] items = new String[Math.max(0, end - offset)];
+            if (items.length == 0) {
+                return List.of();
+            }
+            long position = lineStarts[offset >>> INDEX_SHIFT];
+            for (int line = offset & ~(INDEX_INTERVAL - 1); line < offset; line++) {
+                position = nextLine(position);
+            }
+            for (int i = 0; i < items.length; i++) {
+                final long next = nextLine(position);
+                long lineEnd = next > position && getByte(next - 1) == '\n' ? next - 1 : next;
+                if (lineEnd > position && getByte(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                items[i] = decode(position, lineEnd, charset);
+                position = next;
+            }
+            return Arrays.asList(items);
+        }
+
+        // Returns the position after the terminator of the line starting at a position, or the end of the file
+        private long nextLine(long position) {
+            while (position < fileSize) {
+                if (getByte(position++) == '\n') {
+                    return position;
+                }
+            }
+            return position;
+        }
+
+        private byte getByte(final long position) {
+            return regions[(int) (position >>> REGION_SHIFT)].get((int) (position & REGION_MASK));
+        }
+
+        @NotNull
+        private String decode(final long start, final long end, @NotNull Charset charset) {
+            final byte[] bytes = new byte[(int) (end - start)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = getByte(start + i);
+            }
+            return new String(bytes, charset);
+        }
+    }
+
+    /**
+     * A view of the lines of one index of the file
+     */
+    private final class IndexSnapshot implements PageSource {
+        @NotNull
+        private final Index index;
+
+        private IndexSnapshot(@NotNull Index index) {
+            this.index = index;
+        }
+
+        @Override
+        public int size() {
+            return index.size();
+        }
+
+        @NotNull
+        @Override
+        public List<String> getItems(int offset, int limit) {
+            return index.getItems(offset, limit, charset);
+        }
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable {@link PageSource} that packs the text of every item into one contiguous UTF-8 {@code byte[]}, with
+ * an {@code int[]} table of where each item starts
+ * <p>
+ * Items are only decoded into strings when the page they are on is fetched. Compared to a {@code List<String>},
+ * this saves the string object, array header and list reference of every item: for short ASCII items, such as
+ * 40-character log lines, a packed source takes less than half the heap.
+ * <p>
+ * The packed text of all items must fit in a single array, so may not exceed 2 GiB.
+ */
+public final class PackedPageSource implements PageSource {
+
+    // Shallow size estimates on a 64-bit JVM with compressed references
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    private final byte[] text;
+    // The start of each item in the text, followed by the end of the last item
+    private final int[] offsets;
+
+    private PackedPageSource(@NotNull byte[] text, @NotNull int[] offsets) {
+        this.text = text;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Create a {@link PackedPageSource} of a collection of items
+     *
+     * @param items The items, in order
+     * @return A new {@link PackedPageSource}
+     */
+    @NotNull
+    public static PackedPageSource of(@NotNull Collection<String> items) {
+        final Builder builder = new Builder(items.size());
+        items.forEach(builder::add);
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    @NotNull
+    @Override
+    public List<String> getItems(int offset, int limit) {
+        final int end = Math.min(size(), offset + limit);
+        final String[] items = new String[Math.max(0, end - offset)];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = get(offset + i);
+        }
+        return Arrays.asList(items);
+    }
+
+    /**
+     * Returns an item, decoding it from the packed text
+     *
+     * @param index The index of the item
+     * @return The item
+     */
+    @NotNull
+    public String get(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+        return new String(text, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns an estimate of the heap used by this source, in bytes
+     *
+     * @return The estimated heap usage
+     */
+    public long getMemoryUsage() {
+        return OBJECT_HEADER + 2L * REFERENCE
+                + align(ARRAY_HEADER + (long) text.length)
+                + align(ARRAY_HEADER + (long) offsets.length * Integer.BYTES);
+    }
+
+    // Returns the number of bytes of encoded item text held
+    int getTextLength() {
+        return text.length;
+    }
+
+    // Returns the number of item offsets held, one more than the number of items
+    int getOffsetCount() {
+        return offsets.length;
+    }
+
+    /**
+     * Returns an estimate of the heap used by a {@code List<String>} of items, for comparison with
+     * {@link #getMemoryUsage()}: the list's reference to each item, plus each string and its array (assuming
+     * compact strings)
+     *
+     * @param items The items
+     * @return The estimated heap usage, in bytes
+     */
+    public static long estimateListMemoryUsage(@NotNull List<String> items) {
+        long usage = align(ARRAY_HEADER + (long) items.size() * REFERENCE);
+        for (String item : items) {
+            final boolean latin1 = item.chars().allMatch(c -> c < 256);
+            usage += align(OBJECT_HEADER + REFERENCE + 2 * Integer.BYTES)
+                    + align(ARRAY_HEADER + (long) item.length() * (latin1 ? 1 : 2));
+        }
+        return usage;
+    }
+
+    private static long align(final long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Builder for {@link PackedPageSource}s, packing items as they are added
+     */
+    public static class Builder {
+        private byte[] text;
+        private int[] offsets;
+        private int size;
+
+        public Builder() {
+            this(16);
+        }
+
+        /**
+         * Create a builder, presized for an expected number of items
+         *
+         * @param expectedItems The expected number of items
+         */
+        public Builder(final int expectedItems) {
+            this.offsets = new int[Math.max(1, expectedItems) + 1];
+            this.text = new byte[Math.max(16, expectedItems * 32)];
+        }
+
+        @NotNull
+        public Builder add(@NotNull String item) {
+            final byte[] encoded = item.getBytes(StandardCharsets.UTF_8);
+            final int start = offsets[size];
+            if (encoded.length > Integer.MAX_VALUE - 8 - start) {
+                throw new PaginationException("Packed item text may not exceed 2 GiB");
+            }
+            if (start + encoded.length > text.length) {
+                text = Arrays.copyOf(text, (int) Math.min(Integer.MAX_VALUE - 8,
+                        Math.max(start + encoded.length, text.length * 2L)));
+            }
+            System.arraycopy(encoded, 0, text, start, encoded.length);
+            if (size + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[++size] = start + encoded.length;
+            return this;
+        }
+
+        @NotNull
+        public PackedPageSource build() {
+            return new PackedPageSource(Arrays.copyOf(text, offsets[size]), Arrays.copyOf(offsets, size + 1));
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, least-recently-used cache of rendered pages, keyed by page number
+ * <p>
+ * Each cached page lazily holds the immutable forms it has been requested in: the raw string, the directly built
+ * {@link Component} and the serialized payloads of the component from the last two serializers.
+ * <p>
+ * Each entry is stamped with the items it was rendered from and the total item count at the time, and is only
+ * returned while both still match, so changes to the backing items invalidate stale pages automatically.
+ */
+final class PageCache {
+
+    // The number of serialized payloads kept per page, so serializers created per call cannot grow a page
+    private static final int MAX_PAYLOADS = 2;
+
+    private final Map<Integer, CachedPage> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    PageCache(final int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CachedPage> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached entry for a page if it was rendered from the same items, otherwise caches a new entry
+     *
+     * @param page       The page number
+     * @param pageItems  The items currently on the page
+     * @param totalItems The current total number of items
+     * @param timer      The timer of the render, if timing renders
+     * @return The cached entry for the page
+     */
+    @NotNull
+    CachedPage get(final int page, @NotNull List<String> pageItems, final int totalItems,
+                   @Nullable RenderTimer timer) {
+        final CachedPage cached;
+        synchronized (entries) {
+            cached = entries.get(page);
+        }
+        final boolean hit = cached != null && cached.matches(pageItems, totalItems);
+        if (timer != null) {
+            timer.setCacheHit(hit);
+        }
+        if (hit) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        final CachedPage entry = new CachedPage(pageItems.toArray(new String[0]), totalItems);
+        synchronized (entries) {
+            entries.put(page, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Removes the cached pages in a range
+     *
+     * @param fromPage The first page to remove
+     * @param toPage   The last page to remove
+     */
+    void invalidate(final int fromPage, final int toPage) {
+        synchronized (entries) {
+            entries.keySet().removeIf(page -> page >= fromPage && page <= toPage);
+        }
+    }
+
+    /**
+     * Removes all cached pages
+     */
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * A rendered page; each form of the page is rendered on first use
+     */
+    static final class CachedPage {
+        private final String[] items;
+        private final int totalItems;
+        @Nullable
+        private volatile String rawPage;
+        @Nullable
+        private volatile Component component;
+        // Serialized payloads of the component, most recently serialized first; never modified once published
+        @NotNull
+        private volatile Payload[] payloads = new Payload[0];
+
+        private CachedPage(@NotNull String[] items, final int totalItems) {
+            this.items = items;
+            this.totalItems = totalItems;
+        }
+
+        @NotNull
+        String getRawPage(@NotNull Supplier<String> renderer) {
+            String rendered = rawPage;
+            if (rendered == null) {
+                rendered = renderer.get();
+                rawPage = rendered;
+            }
+            return rendered;
+        }
+
+        @NotNull
+        Component getComponent(@NotNull Supplier<Component> renderer) {
+            Component rendered = component;
+            if (rendered == null) {
+                rendered = renderer.get();
+                component = rendered;
+            }
+            return rendered;
+        }
+
+        @NotNull
+        @SuppressWarnings("unchecked")
+        <T> T getPayload(@NotNull Function<Component, T> serializer, @NotNull Supplier<Component> renderer) {
+            for (Payload payload : payloads) {
+                if (payload.serializer == serializer) {
+                    return (T) payload.payload;
+                }
+            }
+            final T created = serializer.apply(getComponent(renderer));
+            synchronized (this) {
+                final Payload[] current = payloads;
+                for (Payload payload : current) {
+                    if (payload.serializer == serializer) {
+                        return (T) payload.payload;
+                    }
+                }
+                final Payload[] updated = new Payload[Math.min(MAX_PAYLOADS, current.length + 1)];
+                updated[0] = new Payload(serializer, created);
+                System.arraycopy(current, 0, updated, 1, updated.length - 1);
+                payloads = updated;
+            }
+            return created;
+        }
+
+        private boolean matches(@NotNull List<String> pageItems, final int totalItems) {
+            if (this.totalItems != totalItems || items.length != pageItems.size()) {
+                return false;
+            }
+            // A replaced item means the page must be re-rendered; items are compared by identity first, as sources
+            // that materialize items on each fetch return equal but distinct strings
+            for (int i = 0; i < items.length; i++) {
+                final String item = pageItems.get(i);
+                if (items[i] != item && !items[i].equals(item)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A serialized payload of a page's component and the serializer that produced it
+     */
+    private static final class Payload {
+        @NotNull
+        private final Function<Component, ?> serializer;
+        @NotNull
+        private final Object payload;
+
+        private Payload(@NotNull Function<Component, ?> serializer, @NotNull Object payload) {
+            this.serializer = serializer;
+            this.payload = payload;
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Divides the items of a {@link PageSource} into pages
+ */
+abstract class PageLayout {
+
+    /**
+     * Returns the layout for a list's {@link ListOptions}: pages of {@link ListOptions#itemsPerPage} items, or
+     * pages filled up to the character or line budget if either is set
+     *
+     * @param options The list options
+     * @return A new layout
+     */
+    @NotNull
+    static PageLayout of(@NotNull ListOptions options) {
+        if (options.pageCharacterBudget > 0 || options.pageLineBudget > 0) {
+            return new BudgetedPageLayout(options);
+        }
+        return new FixedPageLayout(options.itemsPerPage);
+    }
+
+    /**
+     * Returns the number of changes notified to this layout so far. Read before taking the view of the source
+     * passed to {@link #getPages(PageSource, long)}, so the view is known to include at least those changes.
+     *
+     * @return The number of changes notified
+     */
+    long getChangeCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the pages of the items in a consistent view of a source
+     *
+     * @param source      The view of the source
+     * @param changeCount The {@link #getChangeCount() change count} read before the view was taken
+     * @return The pages of the items
+     */
+    @NotNull
+    abstract Pages getPages(@NotNull PageSource source, long changeCount);
+
+    /**
+     * Returns the page the item at an index was last laid out on
+     *
+     * @param index The index of the item
+     * @return The page number
+     */
+    abstract int getPageOf(int index);
+
+    /**
+     * Called when items in the source have changed, so that pages are laid out again from the first changed item
+     *
+     * @param fromIndex The index of the first item that may have changed
+     */
+    void onItemsChanged(final int fromIndex) {
+    }
+
+    /**
+     * Returns whether a change to an item can move the boundaries of the pages after it
+     *
+     * @return Whether changes shift later pages
+     */
+    abstract boolean isChangeShifting();
+
+    /**
+     * An immutable division of items into pages
+     */
+    interface Pages {
+
+        int getTotalItems();
+
+        int getTotalPages();
+
+        /**
+         * Returns the index of the first item on a page
+         *
+         * @param page The page number
+         * @return The index of the page's first item
+         */
+        int getPageStart(int page);
+
+        /**
+         * Returns the index after the last item on a page
+         *
+         * @param page The page number
+         * @return The index after the page's last item
+         */
+        int getPageEnd(int page);
+
+    }
+
+    /**
+     * Pages of a fixed number of items
+     */
+    private static final class FixedPageLayout extends PageLayout {
+        private final int itemsPerPage;
+
+        private FixedPageLayout(final int itemsPerPage) {
+            this.itemsPerPage = itemsPerPage;
+        }
+
+        @NotNull
+        @Override
+        Pages getPages(@NotNull PageSource source, final long changeCount) {
+            final int totalItems = source.size();
+            final int totalPages = (int) Math.ceil((double) totalItems / itemsPerPage);
+            return new Pages() {
+                @Override
+                public int getTotalItems() {
+                    return totalItems;
+                }
+
+                @Override
+                public int getTotalPages() {
+                    return totalPages;
+                }
+
+                @Override
+                public int getPageStart(int page) {
+                    return (page - 1) * itemsPerPage;
+                }
+
+                @Override
+                public int getPageEnd(int page) {
+                    return Math.min(totalItems, page * itemsPerPage);
+                }
+            };
+        }
+
+        @Override
+        int getPageOf(final int index) {
+            return index / itemsPerPage + 1;
+        }
+
+        @Override
+        boolean isChangeShifting() {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * A source of items to be paginated by a {@link PaginatedList}
+ * <p>
+ * Items are fetched on demand, one page at a time, so a source does not need to hold every item in memory; for
+ * example, a source can fetch each page from a database with an offset/limit query.
+ *
+ * @see PaginatedList#of(PageSource, ListOptions)
+ */
+public interface PageSource {
+
+    /**
+     * Returns the total number of items in the source
+     *
+     * @return The total number of items
+     */
+    int size();
+
+    /**
+     * Returns a range of items from the source
+     *
+     * @param offset The index of the first item to return
+     * @param limit  The number of items to return
+     * @return The items in the range, in order
+     */
+    @NotNull
+    List<String> getItems(int offset, int limit);
+
+    /**
+     * Returns a consistent view of this source to render one page from. Sources whose items can change while a
+     * page is rendering should return an immutable snapshot of their current items.
+     *
+     * @return A view of the source's current items; by default, the source itself
+     */
+    @NotNull
+    default PageSource snapshot() {
+        return this;
+    }
+
+    /**
+     * Registers a listener to be notified when items in this source change, so that cached pages can be
+     * invalidated. Sources should only hold listeners weakly. By default, sources do not notify listeners.
+     *
+     * @param listener The listener to register
+     */
+    default void addChangeListener(@NotNull ChangeListener listener) {
+    }
+
+    /**
+     * Create a {@link PageSource} backed by an in-memory {@link List} of items
+     *
+     * @param items The {@link List} of items
+     * @return A new {@link PageSource}
+     */
+    @NotNull
+    static PageSource of(@NotNull List<String> items) {
+        return new ListPageSource(items);
+    }
+
+    /**
+     * Create a {@link PageSource} from a total item count provider and a range fetcher
+     *
+     * @param size    Provides the total number of items
+     * @param fetcher Fetches a range of items
+     * @return A new {@link PageSource}
+     */
+    @NotNull
+    static PageSource of(@NotNull IntSupplier size, @NotNull Fetcher fetcher) {
+        return new PageSource() {
+            @Override
+            public int size() {
+                return size.getAsInt();
+            }
+
+            @NotNull
+            @Override
+            public List<String> getItems(int offset, int limit) {
+                return fetcher.fetch(offset, limit);
+            }
+        };
+    }
+
+    /**
+     * Fetches a range of items, such as with an offset/limit database query
+     */
+    @FunctionalInterface
+    interface Fetcher {
+
+        /**
+         * Fetch a range of items
+         *
+         * @param offset The index of the first item to return
+         * @param limit  The number of items to return
+         * @return The items in the range, in order
+         */
+        @NotNull
+        List<String> fetch(int offset, int limit);
+
+    }
+
+    /**
+     * Listens for changes to the items in a {@link PageSource}
+     */
+    @FunctionalInterface
+    interface ChangeListener {
+
+        /**
+         * Called after items in a source have changed
+         *
+         * @param fromIndex The index of the first item that may have changed
+         * @param toIndex   The index after the last item that may have changed
+         * @param resized   Whether the total number of items changed
+         */
+        void onItemsChanged(int fromIndex, int toIndex, boolean resized);
+
+    }
+
+}
@@ -21,11 +21,26 @@ package net.william278.paginedown;
 
 
 import de.themoep.minedown.adventure.MineDown;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
-import java.util.StringJoiner;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 /**
  * A class used to generate {@link MineDown} formatted chat menus of paginated list items.
@@ -37,8 +52,9 @@ import java.util.stream.Collectors;
  *     <li>A footer, by default containing page navigation buttons and quick-jump page numbers</li>
  * </ul>
  * You can supply {@link ListOptions} to modify the format of each element, including shortcuts for modifying a theme color.
- * Once you have created a {@link PaginatedList} object using the static {@code get(items, options)},
+ * Once you have created a {@link PaginatedList} object using the static {@code of(items, options)},
  * you can easily generate a {@link MineDown} formatted chat menu for a given page using the {@code getPage()} methods.
+ * Items can also be paginated on demand from a {@link PageSource}, such as a database-backed source.
  *
  * @author William278
  * @see ListOptions
@@ -46,6 +62,12 @@ import java.util.stream.Collectors;
 @SuppressWarnings("unused")
 public class PaginatedList {
 
+    // Per-thread buffers for rendering into Appendables, dropped if a render grows them past the retained size
+    private static final ThreadLocal<StringBuilder> RENDER_BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+    private static final int MAX_RETAINED_BUFFER = 1 << 16;
+    // The number of pages worth of items whose escaped forms are memoized
+    private static final int ESCAPED_ITEM_PAGES = 16;
+
     /**
      * {@link ListOptions} to be used for generating the list
      */
@@ -53,20 +75,98 @@ public class PaginatedList {
     private final ListOptions options;
 
     /**
-     * A list of items to be paginated; can be MineDown formatted
+     * The source of items to be paginated; items can be MineDown formatted
+     */
+    @NotNull
+    private final PageSource source;
+
+    /**
+     * Cache of rendered pages, if enabled in the {@link ListOptions}
+     */
+    @Nullable
+    private final PageCache pageCache;
+
+    /**
+     * Invalidates cached pages when items in the source change; held here as sources only hold listeners weakly
+     */
+    @NotNull
+    private final PageSource.ChangeListener changeListener = this::onItemsChanged;
+
+    /**
+     * Memoized escaped forms of items, if items are escaped
+     */
+    @Nullable
+    private final EscapedItems escapedItems;
+
+    /**
+     * Parsed components of the headers and footers of recently rendered pages
+     */
+    @NotNull
+    private final ChromeComponents chromeComponents = new ChromeComponents();
+
+    /**
+     * The values of the custom placeholders resolved once per list, by id
+     */
+    @NotNull
+    private final String[] listPlaceholderValues;
+
+    /**
+     * Divides the items into pages
+     */
+    @NotNull
+    private final PageLayout layout;
+
+    /**
+     * Components of rendered items by content, if caching item components
+     */
+    @Nullable
+    private final ItemComponentCache itemComponents;
+
+    /**
+     * Lower-cased search keys of the items, shared with filtered and sorted views of this list
      */
     @NotNull
-    private final List<String> items;
+    private final IndexedView.SearchKeys searchKeys;
 
     /**
-     * Private constructor used by {@code #get(List, ListOptions)}
+     * Asynchronous renders in progress, by page number, so that identical requests share one render
+     */
+    private final Map<Integer, CompletableFuture<String>> rawPagesInFlight = new ConcurrentHashMap<>();
+    private final Map<Integer, CompletableFuture<Component>> componentsInFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor used by {@code #of(PageSource, ListOptions)}
      *
-     * @param items   a list of items to be paginated
+     * @param source  the source of items to be paginated
      * @param options {@link ListOptions} to be used for generating list pages
      */
-    private PaginatedList(@NotNull List<String> items, @NotNull ListOptions options) {
-        this.items = items;
+    private PaginatedList(@NotNull PageSource source, @NotNull ListOptions options) {
+        this(source, options, new IndexedView.SearchKeys());
+    }
+
+    /**
+     * Private constructor used to create views of a list
+     *
+     * @param source     the source of items to be paginated
+     * @param options    {@link ListOptions} to be used for generating list pages
+     * @param searchKeys the search keys of the source's items
+     */
+    private PaginatedList(@NotNull PageSource source, @NotNull ListOptions options,
+                          @NotNull IndexedView.SearchKeys searchKeys) {
+        this.searchKeys = searchKeys;
+        this.source = options.readAheadPages > 0 && !isInMemory(source)
+                ? new ReadAheadPageSource(source, options.readAheadPages * options.itemsPerPage,
+                options.readAheadExpiryNanos)
+                : source;
         this.options = options;
+        this.layout = PageLayout.of(options);
+        this.listPlaceholderValues = options.resolveListPlaceholders();
+        this.pageCache = options.pageCacheSize > 0 ? new PageCache(options.pageCacheSize) : null;
+        this.escapedItems = options.escapeItemsMineDown
+                ? new EscapedItems(options.itemsPerPage * ESCAPED_ITEM_PAGES) : null;
+        this.itemComponents = options.itemComponentCacheSize > 0
+                ? new ItemComponentCache(options.itemComponentCacheSize) : null;
+        source.addChangeListener(changeListener);
     }
 
     /**
@@ -77,7 +177,7 @@ public class PaginatedList {
      */
     @NotNull
     public static PaginatedList of(@NotNull List<String> items) {
-        return new PaginatedList(items, new ListOptions.Builder().build());
+        return of(items, new ListOptions.Builder().build());
     }
 
     /**
@@ -89,9 +189,88 @@ public class PaginatedList {
      */
     @NotNull
     public static PaginatedList of(@NotNull List<String> items, @NotNull ListOptions options) {
-        return new PaginatedList(items, options);
+        return new PaginatedList(PageSource.of(items), options);
     }
 
+    /**
+     * Create a new {@link PaginatedList} of typed items, such as homes or transactions, formatted into MineDown
+     * strings by a formatter.
+     * <p>Items are only formatted when the page they are on is rendered, so creating a list of many items formats
+     * none of them up front. Formatted items can be kept for reuse with
+     * {@link ListOptions.Builder#setFormattedItemCacheSize(int)}.
+     *
+     * @param items     The {@link List} of items to paginate
+     * @param formatter Formats an item into a MineDown string
+     * @param options   The {@link ListOptions} to use for generating list pages
+     * @param <T>       The type of the items
+     * @return A new {@link PaginatedList}
+     */
+    @NotNull
+    public static <T> PaginatedList of(@NotNull List<T> items, @NotNull Function<? super T, String> formatter,
+                                       @NotNull ListOptions options) {
+        return new PaginatedList(new FormattedPageSource<>(items, formatter, options.formattedItemCacheSize),
+                options);
+    }
+
+    /**
+     * Create a new {@link PaginatedList} that fetches the items for each page on demand from a {@link PageSource}
+     *
+     * @param source  The {@link PageSource} of items to paginate
+     * @param options The {@link ListOptions} to use for generating list pages
+     * @return A new {@link PaginatedList}
+     * @see ListOptions.Builder#setReadAheadPages(int)
+     */
+    @NotNull
+    public static PaginatedList of(@NotNull PageSource source, @NotNull ListOptions options) {
+        return new PaginatedList(source, options);
+    }
+
+    // Returns whether a source already holds its items in memory, so reading ahead would not save any fetches
+    private static boolean isInMemory(@NotNull PageSource source) {
+        return source instanceof ListPageSource || source instanceof IndexedView
+                || source instanceof PackedPageSource || source instanceof FormattedPageSource;
+    }
+
+    /**
+     * Returns a view of this list containing only the items that contain a search query, ignoring case.
+     * <p>The view is held as an index of the matching items rather than a copy of them, and the lower-cased search
+     * keys of the items are computed on the first search and shared by the views of the same items. Pagination,
+     * totals and page jumpers of the view cover only the matching items. Views reflect the items at the time they
+     * are created.
+     *
+     * @param query The search query
+     * @return A new {@link PaginatedList} of the matching items, with the same {@link ListOptions}
+     */
+    @NotNull
+    public PaginatedList filter(@NotNull String query) {
+        return new PaginatedList(IndexedView.over(source, searchKeys).search(query), options, searchKeys);
+    }
+
+    /**
+     * Returns a view of this list containing only the items matching a predicate
+     * <p>Views reflect the items at the time they are created.
+     *
+     * @param filter The predicate items must match
+     * @return A new {@link PaginatedList} of the matching items, with the same {@link ListOptions}
+     * @see #filter(String)
+     */
+    @NotNull
+    public PaginatedList filter(@NotNull Predicate<String> filter) {
+        return new PaginatedList(IndexedView.over(source, searchKeys).filter(filter), options, searchKeys);
+    }
+
+    /**
+     * Returns a view of this list with its items sorted by a comparator. The sort is stable, and sorts an index of
+     * the items rather than a copy of them.
+     * <p>Views reflect the items at the time they are created.
+     *
+     * @param comparator The comparator to sort items by
+     * @return A new {@link PaginatedList} of the sorted items, with the same {@link ListOptions}
+     */
+    @NotNull
+    public PaginatedList sort(@NotNull Comparator<? super String> comparator) {
+        return new PaginatedList(IndexedView.over(source, searchKeys).sort(comparator), options, searchKeys);
+    }
 
     /**
      * Returns a {@link MineDown} formatted message to be sent to a player of the paginated list for the nearest specified page that exists
@@ -115,7 +294,21 @@ public class PaginatedList {
      * @throws PaginationException If the page number is out of bounds
      */
     public MineDown getPage(final int page) throws PaginationException {
-        return new MineDown(getRawPage(page));
+        final RenderTimer timer = RenderTimer.start(options, RenderEvent.Type.MINEDOWN, page);
+        final Snapshot snapshot = takeSnapshot(page, timer);
+        // The raw page is cached rather than the mutable MineDown, so each caller gets its own instance
+        final String rawPage = pageCache != null
+                ? getCachedPage(snapshot).getRawPage(() -> renderRawPage(snapshot))
+                : renderRawPage(snapshot);
+        final MineDown mineDown = new MineDown(rawPage);
+        if (timer != null) {
+            // MineDown parses lazily and keeps the result, so parse now to time it
+            timer.skip();
+            mineDown.toComponent();
+            timer.lap(RenderEvent.Stage.PARSE);
+            timer.finish(rawPage.length());
+        }
+        return mineDown;
     }
 
     /**
@@ -128,35 +321,541 @@ public class PaginatedList {
      */
     @NotNull
     public String getRawPage(final int page) throws PaginationException {
+        final RenderTimer timer = RenderTimer.start(options, RenderEvent.Type.RAW_PAGE, page);
+        final Snapshot snapshot = takeSnapshot(page, timer);
+        final String rawPage = pageCache != null
+                ? getCachedPage(snapshot).getRawPage(() -> renderRawPage(snapshot))
+                : renderRawPage(snapshot);
+        if (timer != null) {
+            timer.finish(rawPage.length());
+        }
+        return rawPage;
+    }
+
+    /**
+     * Writes the raw string of pre-{@link MineDown}-formatted text for the specified page to a builder.
+     * <p>The builder is grown once, to the estimated length of the page, before the page is written straight into
+     * it, so that reusing one builder across renders avoids allocating intermediate strings.
+     *
+     * @param page The page number to render
+     * @param out  The builder to append the page to
+     * @throws PaginationException If the page number is out of bounds
+     * @see #getRawPage(int)
+     */
+    public void renderPage(final int page, @NotNull StringBuilder out) throws PaginationException {
+        final RenderTimer timer = RenderTimer.start(options, RenderEvent.Type.RAW_PAGE, page);
+        final Snapshot snapshot = takeSnapshot(page, timer);
+        final int start = out.length();
+        if (pageCache != null) {
+            out.append(getCachedPage(snapshot).getRawPage(() -> renderRawPage(snapshot)));
+        } else {
+            appendRawPage(out, snapshot);
+        }
+        if (timer != null) {
+            timer.finish(out.length() - start);
+        }
+    }
+
+    /**
+     * Writes the raw string of pre-{@link MineDown}-formatted text for the specified page to an {@link Appendable}.
+     * <p>The page is rendered into a reusable per-thread buffer, then appended in one call.
+     *
+     * @param page The page number to render
+     * @param out  The appendable to write the page to
+     * @throws PaginationException If the page number is out of bounds
+     * @throws IOException         If writing to the appendable fails
+     * @see #renderPage(int, StringBuilder)
+     */
+    public void renderPage(final int page, @NotNull Appendable out) throws PaginationException, IOException {
+        if (out instanceof StringBuilder) {
+            renderPage(page, (StringBuilder) out);
+            return;
+        }
+        final StringBuilder buffer = RENDER_BUFFER.get();
+        try {
+            renderPage(page, buffer);
+            out.append(buffer);
+        } finally {
+            buffer.setLength(0);
+            if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+                RENDER_BUFFER.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns an Adventure {@link Component} of the paginated list for the specified page, built directly rather
+     * than by parsing a {@link MineDown} string of the whole page.
+     * <p>List formats and options from the {@link ListOptions} are applied to generate the list. The header, footer
+     * and item separator are parsed with MineDown and reused across renders; when items are escaped
+     * ({@link ListOptions.Builder#setEscapeItemsMineDown(boolean)}), they become plain text components without
+     * being escaped or parsed, otherwise each item is parsed on its own.
+     *
+     * @param page The page number to get
+     * @return A {@link Component} of the list page
+     * @throws PaginationException If the page number is out of bounds
+     */
+    @NotNull
+    public Component getComponent(final int page) throws PaginationException {
+        final RenderTimer timer = RenderTimer.start(options, RenderEvent.Type.COMPONENT, page);
+        final Snapshot snapshot = takeSnapshot(page, timer);
+        final Component component = pageCache != null
+                ? getCachedPage(snapshot).getComponent(() -> renderComponent(snapshot))
+                : renderComponent(snapshot);
+        if (timer != null) {
+            timer.finish(-1);
+        }
+        return component;
+    }
+
+    /**
+     * Returns the serialized form of the {@link #getComponent(int) component} for the specified page, such as the
+     * JSON or network bytes sent to players, for broadcasting one page to many recipients.
+     * <p>The serialized payload is cached alongside the page in the page cache
+     * ({@link ListOptions.Builder#setPageCacheSize(int)}), so the page is rendered and serialized once and the same
+     * payload is returned to every caller until the page's items change. Payloads are cached per serializer
+     * instance, and only for the two serializers most recently used on each page, so the serializer should be held
+     * in a field and reused rather than created per call (as an inline lambda capturing local state would be);
+     * new serializer instances are serialized again and replace older payloads. With the page cache disabled, the
+     * page is rendered and serialized on every call.
+     *
+     * @param page       The page number to get
+     * @param serializer Serializes the page component
+     * @param <T>        The type of the serialized payload
+     * @return The serialized page payload
+     * @throws PaginationException If the page number is out of bounds
+     */
+    @NotNull
+    public <T> T getSerializedPage(final int page, @NotNull Function<Component, T> serializer)
+            throws PaginationException {
+        final RenderTimer timer = RenderTimer.start(options, RenderEvent.Type.COMPONENT, page);
+        final Snapshot snapshot = takeSnapshot(page, timer);
+        final T payload = pageCache != null
+                ? getCachedPage(snapshot).getPayload(serializer, () -> renderComponent(snapshot))
+                : serializer.apply(renderComponent(snapshot));
+        if (timer != null) {
+            timer.finish(-1);
+        }
+        return payload;
+    }
+
+    /**
+     * Asynchronously returns a {@link MineDown} formatted message of the paginated list for the nearest specified
+     * page that exists, rendered on the render executor
+     *
+     * @param page The page number to get
+     * @return A future completing with the {@link MineDown} object, for formatting the list
+     * @see #getNearestValidPage(int)
+     * @see ListOptions.Builder#setRenderExecutor(java.util.concurrent.Executor)
+     */
+    @NotNull
+    public CompletableFuture<MineDown> getNearestValidPageAsync(final int page) {
+        return CompletableFuture.supplyAsync(() -> Math.max(1, Math.min(getTotalPages(), page)),
+                RenderExecutors.get(options)).thenCompose(this::getPageAsync);
+    }
+
+    /**
+     * Asynchronously returns a {@link MineDown} formatted message of the paginated list for the specified page,
+     * rendered on the render executor. Requests for a page that is already being rendered share the render of its
+     * raw text, and each request completes with its own {@link MineDown} instance.
+     *
+     * @param page The page number to get
+     * @return A future completing with the {@link MineDown} object, or exceptionally with a
+     * {@link PaginationException} if the page number is out of bounds
+     * @see #getPage(int)
+     * @see ListOptions.Builder#setRenderExecutor(java.util.concurrent.Executor)
+     */
+    @NotNull
+    public CompletableFuture<MineDown> getPageAsync(final int page) {
+        return renderAsync(rawPagesInFlight, page, this::getRawPage).thenApply(MineDown::new);
+    }
+
+    /**
+     * Asynchronously generates the raw string of pre-{@link MineDown}-formatted text for the specified page,
+     * rendered on the render executor. Requests for a page that is already being rendered share that render.
+     *
+     * @param page The page number to get
+     * @return A future completing with the raw page, or exceptionally with a {@link PaginationException} if the
+     * page number is out of bounds
+     * @see #getRawPage(int)
+     * @see ListOptions.Builder#setRenderExecutor(java.util.concurrent.Executor)
+     */
+    @NotNull
+    public CompletableFuture<String> getRawPageAsync(final int page) {
+        return renderAsync(rawPagesInFlight, page, this::getRawPage);
+    }
+
+    /**
+     * Asynchronously builds an Adventure {@link Component} of the paginated list for the specified page, rendered on
+     * the render executor. Requests for a page that is already being rendered share that render.
+     *
+     * @param page The page number to get
+     * @return A future completing with the page component, or exceptionally with a {@link PaginationException} if
+     * the page number is out of bounds
+     * @see #getComponent(int)
+     * @see ListOptions.Builder#setRenderExecutor(java.util.concurrent.Executor)
+     */
+    @NotNull
+    public CompletableFuture<Component> getComponentAsync(final int page) {
+        return renderAsync(componentsInFlight, page, this::getComponent);
+    }
+
+    /**
+     * Renders a page on the render executor, joining a render of the same page that is already in progress
+     *
+     * @param inFlight The renders in progress
+     * @param page     The page number to render
+     * @param renderer The render function
+     * @param <T>      The type of the rendered page
+     * @return A future completing with the rendered page
+     */
+    @NotNull
+    private <T> CompletableFuture<T> renderAsync(@NotNull Map<Integer, CompletableFuture<T>> inFlight, final int page,
+                                                 @NotNull IntFunction<T> renderer) {
+        final CompletableFuture<T> render = new CompletableFuture<>();
+        final CompletableFuture<T> existing = inFlight.putIfAbsent(page, render);
+        if (existing != null) {
+            return existing.copy();
+        }
+        try {
+            RenderExecutors.get(options).execute(() -> {
+                try {
+                    final T rendered = renderer.apply(page);
+                    inFlight.remove(page, render);
+                    render.complete(rendered);
+                } catch (Throwable e) {
+                    inFlight.remove(page, render);
+                    render.completeExceptionally(e);
+                }
+            });
+        } catch (Throwable e) {
+            inFlight.remove(page, render);
+            render.completeExceptionally(e);
+        }
+        return render.copy();
+    }
+
+    /**
+     * Renders the raw string of pre-{@link MineDown}-formatted text for every page, in parallel on the render
+     * executor, passing each page to a consumer in page order.
+     *
+     * @param consumer The consumer of each rendered page, called on the calling thread
+     * @throws PaginationException If a page fails to render
+     * @see #renderPages(IntStream, PageConsumer)
+     */
+    public void renderAllPages(@NotNull PageConsumer consumer) throws PaginationException {
+        final long changes = layout.getChangeCount();
+        final PageSource source = this.source.snapshot();
+        final PageLayout.Pages pages = layout.getPages(source, changes);
+        renderPages(source, pages, IntStream.rangeClosed(1, pages.getTotalPages()), consumer);
+    }
+
+    /**
+     * Renders the raw string of pre-{@link MineDown}-formatted text for each of a stream of pages, in parallel on the
+     * render executor, passing each page to a consumer in the order of the stream.
+     * <p>All pages are rendered from one {@link PageSource#snapshot() snapshot} of the source, so are consistent
+     * with each other when the source's snapshots are immutable, as those of {@link LivePageSource},
+     * {@link PackedPageSource} and {@link MappedFilePageSource} are. Pages of a list of items, or of another source
+     * whose snapshot is the source itself, are read as the items are when each page renders, so should not be
+     * changed while rendering. Rendered pages are populated into the page cache if it is enabled. Only a bounded
+     * window of pages is rendered ahead of the consumer, so rendering every page of a large list does not hold
+     * every page in memory at once. This method blocks until every page has been rendered and consumed.
+     *
+     * @param pages    The page numbers to render
+     * @param consumer The consumer of each rendered page, called on the calling thread
+     * @throws PaginationException If a page number is out of bounds or a page fails to render
+     * @see ListOptions.Builder#setRenderExecutor(java.util.concurrent.Executor)
+     */
+    public void renderPages(@NotNull IntStream pages, @NotNull PageConsumer consumer) throws PaginationException {
+        final long changes = layout.getChangeCount();
+        final PageSource source = this.source.snapshot();
+        renderPages(source, layout.getPages(source, changes), pages, consumer);
+    }
+
+    private void renderPages(@NotNull PageSource source, @NotNull PageLayout.Pages layoutPages,
+                             @NotNull IntStream pages, @NotNull PageConsumer consumer) {
+        final Executor executor = RenderExecutors.get(options);
+        final int window = 2 * Runtime.getRuntime().availableProcessors();
+        final Deque<CompletableFuture<String>> rendering = new ArrayDeque<>(window);
+        final Deque<Integer> renderingPages = new ArrayDeque<>(window);
+        final PrimitiveIterator.OfInt iterator = pages.iterator();
+        while (iterator.hasNext()) {
+            final int page = iterator.nextInt();
+            rendering.add(CompletableFuture.supplyAsync(() -> {
+                final RenderTimer timer = RenderTimer.start(options, RenderEvent.Type.RAW_PAGE, page);
+                final Snapshot snapshot = takeSnapshot(source, layoutPages, page, timer);
+                final String rawPage = pageCache != null
+                        ? getCachedPage(snapshot).getRawPage(() -> renderRawPage(snapshot))
+                        : renderRawPage(snapshot);
+                if (timer != null) {
+                    timer.finish(rawPage.length());
+                }
+                return rawPage;
+            }, executor));
+            renderingPages.add(page);
+            if (rendering.size() >= window) {
+                consumer.accept(renderingPages.remove(), await(rendering.remove()));
+            }
+        }
+        while (!rendering.isEmpty()) {
+            consumer.accept(renderingPages.remove(), await(rendering.remove()));
+        }
+    }
+
+    // Waits for a render, rethrowing its exception
+    @NotNull
+    private static <T> T await(@NotNull CompletableFuture<T> render) {
+        try {
+            return render.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of page renders served from the page cache
+     *
+     * @return The number of page cache hits, or {@code 0} if the page cache is disabled
+     * @see ListOptions.Builder#setPageCacheSize(int)
+     */
+    public long getCacheHits() {
+        return pageCache != null ? pageCache.getHits() : 0;
+    }
+
+    /**
+     * Returns the number of page renders that missed the page cache and had to be rendered
+     *
+     * @return The number of page cache misses, or {@code 0} if the page cache is disabled
+     * @see ListOptions.Builder#setPageCacheSize(int)
+     */
+    public long getCacheMisses() {
+        return pageCache != null ? pageCache.getMisses() : 0;
+    }
+
+    /**
+     * Returns the page cache entry for a page, replacing it with a new entry on a miss
+     *
+     * @param snapshot The snapshot of the page to get
+     * @return The cached page
+     */
+    @NotNull
+    private PageCache.CachedPage getCachedPage(@NotNull Snapshot snapshot) {
+        assert pageCache != null;
+        return pageCache.get(snapshot.page, snapshot.items, snapshot.pages.getTotalItems(), snapshot.timer);
+    }
+
+    /**
+     * Drops the cached pages affected by a change to the items in the source
+     *
+     * @param fromIndex The index of the first item that may have changed
+     * @param toIndex   The index after the last item that may have changed
+     * @param resized   Whether the total number of items changed
+     */
+    private void onItemsChanged(final int fromIndex, final int toIndex, final boolean resized) {
+        layout.onItemsChanged(fromIndex);
+        if (source instanceof ReadAheadPageSource) {
+            ((ReadAheadPageSource) source).invalidate();
+        }
+        if (pageCache == null) {
+            return;
+        }
+        if (resized && options.chromeDependsOnTotals) {
+            pageCache.clear();
+            return;
+        }
+        pageCache.invalidate(layout.getPageOf(fromIndex), layout.isChangeShifting()
+                ? Integer.MAX_VALUE : layout.getPageOf(Math.max(fromIndex, toIndex - 1)));
+    }
+
+    /**
+     * Reads the total item count and the items of a page from the source, checking the page is within bounds
+     *
+     * @param page  The page number
+     * @param timer The timer of the render, if timing renders
+     * @return The snapshot of the page
+     * @throws PaginationException If the page number is out of bounds
+     */
+    @NotNull
+    private Snapshot takeSnapshot(final int page, @Nullable RenderTimer timer) throws PaginationException {
+        final long changes = layout.getChangeCount();
+        final PageSource source = this.source.snapshot();
+        return takeSnapshot(source, layout.getPages(source, changes), page, timer);
+    }
+
+    /**
+     * Reads the items of a page from a view of the source laid out into pages, checking the page is within bounds
+     *
+     * @param source The view of the source
+     * @param pages  The pages of the view's items
+     * @param page   The page number
+     * @param timer  The timer of the render, if timing renders
+     * @return The snapshot of the page
+     * @throws PaginationException If the page number is out of bounds
+     */
+    @NotNull
+    private Snapshot takeSnapshot(@NotNull PageSource source, @NotNull PageLayout.Pages pages, final int page,
+                                  @Nullable RenderTimer timer) throws PaginationException {
+        final int totalPages = pages.getTotalPages();
         if (page < 1) {
             throw new PaginationException("Page index must be >= 1");
         }
-        if (page > getTotalPages()) {
-            throw new PaginationException("Page index must be <= the total number of pages (" + getTotalPages() + ")");
+        if (page > totalPages) {
+            throw new PaginationException("Page index must be <= the total number of pages (" + totalPages + ")");
+        }
+        final int offset = pages.getPageStart(page);
+        final List<String> items = source.getItems(offset, pages.getPageEnd(page) - offset);
+        if (timer != null) {
+            timer.lap(RenderEvent.Stage.ITEMS);
+        }
+        return new Snapshot(page, offset, pages, items, timer);
+    }
+
+    /**
+     * Renders the raw string of pre-{@link MineDown}-formatted text for a page
+     *
+     * @param snapshot The snapshot of the page to render
+     * @return A raw string of pre-MineDown-formatted text, representing the page menu.
+     */
+    @NotNull
+    private String renderRawPage(@NotNull Snapshot snapshot) {
+        final StringBuilder menu = new StringBuilder();
+        appendRawPage(menu, snapshot);
+        return menu.toString();
+    }
+
+    /**
+     * Appends the raw string of pre-{@link MineDown}-formatted text for a page to a builder, first growing the
+     * builder to fit the estimated length of the page
+     *
+     * @param menu     The builder to append to
+     * @param snapshot The snapshot of the page to render
+     */
+    private void appendRawPage(@NotNull StringBuilder menu, @NotNull Snapshot snapshot) {
+        final RenderTimer timer = snapshot.timer;
+        if (timer != null) {
+            timer.skip();
+        }
+        final List<String> pageItems = snapshot.items;
+        int itemsLength = 0;
+        for (int i = 0; i < pageItems.size(); i++) {
+            itemsLength += getRenderedItem(snapshot, i).length();
+        }
+        menu.ensureCapacity(menu.length() + itemsLength
+                + Math.max(0, pageItems.size() - 1) * options.itemSeparator.length()
+                + options.chromeLengthEstimate);
+        if (timer != null) {
+            timer.lap(RenderEvent.Stage.ITEMS);
         }
 
-        final StringJoiner menuJoiner = new StringJoiner("\n");
         if (!options.headerFormat.isBlank()) {
-            menuJoiner.add(formatPageString(options.headerFormat, page));
+            appendPageString(menu, options.headerTemplate, snapshot.page, snapshot.pages);
+            menu.append('\n');
             if (options.spaceAfterHeader) {
-                menuJoiner.add("");
+                menu.append('\n');
+            }
+            if (timer != null) {
+                timer.lap(RenderEvent.Stage.HEADER);
             }
         }
 
-        if (options.escapeItemsMineDown) {
-            menuJoiner.add(getItemsForPage(page).stream().map(MineDown::escape)
-                    .collect(Collectors.joining(options.itemSeparator)));
-        } else {
-            menuJoiner.add(String.join(options.itemSeparator, getItemsForPage(page)));
+        for (int i = 0; i < pageItems.size(); i++) {
+            if (i > 0) {
+                menu.append(options.itemSeparator);
+            }
+            menu.append(getRenderedItem(snapshot, i));
+        }
+        if (timer != null) {
+            timer.lap(RenderEvent.Stage.ITEMS);
+        }
+
+        if (!options.footerFormat.isBlank()) {
+            menu.append('\n');
+            if (options.spaceBeforeFooter) {
+                menu.append('\n');
+            }
+            appendPageString(menu, options.footerTemplate, snapshot.page, snapshot.pages);
+            if (timer != null) {
+                timer.lap(RenderEvent.Stage.FOOTER);
+            }
+        }
+    }
+
+    // Returns an item on a page as written into the raw page, escaped if enabled
+    @NotNull
+    private String getRenderedItem(@NotNull Snapshot snapshot, final int index) {
+        final String item = snapshot.items.get(index);
+        return escapedItems != null ? escapedItems.get(snapshot.offset + index, item) : item;
+    }
+
+    /**
+     * Builds the {@link Component} for a page
+     *
+     * @param snapshot The snapshot of the page to render
+     * @return The page component
+     */
+    @NotNull
+    private Component renderComponent(@NotNull Snapshot snapshot) {
+        final RenderTimer timer = snapshot.timer;
+        if (timer != null) {
+            timer.skip();
+        }
+        final ComponentTemplates templates = options.getComponentTemplates();
+        final TextComponent.Builder menu = Component.text();
+        if (!options.headerFormat.isBlank()) {
+            final String header = formatPageString(options.headerTemplate, snapshot);
+            if (timer != null) {
+                timer.lap(RenderEvent.Stage.HEADER);
+            }
+            menu.append(chromeComponents.getHeader(snapshot.page, header));
+            if (timer != null) {
+                timer.lap(RenderEvent.Stage.PARSE);
+            }
+            menu.append(Component.newline());
+            if (options.spaceAfterHeader) {
+                menu.append(Component.newline());
+            }
+        }
+
+        final List<String> pageItems = snapshot.items;
+        for (int i = 0; i < pageItems.size(); i++) {
+            if (i > 0) {
+                menu.append(templates.getItemSeparator());
+            }
+            menu.append(itemComponents != null
+                    ? itemComponents.get(pageItems.get(i), this::renderItemComponent)
+                    : renderItemComponent(pageItems.get(i)));
+        }
+        if (timer != null) {
+            timer.lap(RenderEvent.Stage.ITEMS);
         }
 
         if (!options.footerFormat.isBlank()) {
+            menu.append(Component.newline());
             if (options.spaceBeforeFooter) {
-                menuJoiner.add("");
+                menu.append(Component.newline());
+            }
+            final String footer = formatPageString(options.footerTemplate, snapshot);
+            if (timer != null) {
+                timer.lap(RenderEvent.Stage.FOOTER);
+            }
+            menu.append(chromeComponents.getFooter(snapshot.page, footer));
+            if (timer != null) {
+                timer.lap(RenderEvent.Stage.PARSE);
             }
-            menuJoiner.add(formatPageString(options.footerFormat, page));
         }
-        return menuJoiner.toString();
+        return menu.build();
+    }
+
+    // Renders the component of an item, as plain text if items are escaped
+    @NotNull
+    private Component renderItemComponent(@NotNull String item) {
+        return options.escapeItemsMineDown ? Component.text(item) : new MineDown(item).toComponent();
     }
 
     /**
@@ -165,136 +864,224 @@ public class PaginatedList {
      * @return The total number of pages
      */
     public int getTotalPages() {
-        return (int) Math.ceil((double) items.size() / options.itemsPerPage);
+        final long changes = layout.getChangeCount();
+        return layout.getPages(source.snapshot(), changes).getTotalPages();
     }
 
     /**
-     * Returns the items to be displayed on the specified page
+     * Formats a compiled ListOption placeholder format with the values of a page
      *
-     * @param page The page number to get
-     * @return The sub-list of items to be shown on a given page
+     * @param format   The compiled format
+     * @param snapshot The snapshot of the page
+     * @return The formatted page string
      */
     @NotNull
-    private List<String> getItemsForPage(final int page) {
-        return items.subList((page - 1) * options.itemsPerPage, Math.min(items.size(), page * options.itemsPerPage));
+    private String formatPageString(@NotNull FormatTemplate format, @NotNull Snapshot snapshot) {
+        final StringBuilder convertedFormat = new StringBuilder();
+        appendPageString(convertedFormat, format, snapshot.page, snapshot.pages);
+        return convertedFormat.toString();
     }
 
     /**
-     * Formats a ListOption placeholder format with values
+     * Runs a compiled ListOption placeholder format, appending the formatted values to a builder
      *
-     * @param format The format string
+     * @param out    The builder to append to
+     * @param format The compiled format
      * @param page   The page number
-     * @return The formatted page string
+     * @param pages  The pages of the items
+     */
+    private void appendPageString(@NotNull StringBuilder out, @NotNull FormatTemplate format, final int page,
+                                  @NotNull PageLayout.Pages pages) {
+        format.format(out, new PageValues(page, pages), listPlaceholderValues, options.pagePlaceholderFunctions);
+    }
+
+    /**
+     * Returns the page jumper buttons for the specified page
+     *
+     * @param page The current page number
+     * @return The formatted page jumper buttons
      */
     @NotNull
-    private String formatPageString(@NotNull String format, int page) {
-        final StringBuilder convertedFormat = new StringBuilder();
-        StringBuilder currentPlaceholder = new StringBuilder();
-        boolean readingPlaceholder = false;
-        for (char c : format.toCharArray()) {
-            if (c == '%') {
-                if (readingPlaceholder) {
-                    switch (currentPlaceholder.toString().toLowerCase()) {
-                        case "topic":
-                            convertedFormat.append(formatPageString(options.topic, page));
-                            break;
-                        case "color":
-                            convertedFormat.append(String.format("#%02x%02x%02x", options.themeColor.getRed(), options.themeColor.getGreen(), options.themeColor.getBlue()));
-                            break;
-                        case "first_item_on_page_index":
-                            convertedFormat.append(((page - 1) * options.itemsPerPage) + 1);
-                            break;
-                        case "last_item_on_page_index":
-                            convertedFormat.append(((page - 1) * options.itemsPerPage) + getItemsForPage(page).size());
-                            break;
-                        case "total_items":
-                            convertedFormat.append(items.size());
-                            break;
-                        case "current_page":
-                            convertedFormat.append(page);
-                            break;
-                        case "total_pages":
-                            convertedFormat.append(getTotalPages());
-                            break;
-                        case "previous_page_button":
-                            if (page > 1) {
-                                convertedFormat.append(formatPageString(options.previousButtonFormat, page));
-                            }
-                            break;
-                        case "next_page_button":
-                            if (page < getTotalPages()) {
-                                convertedFormat.append(formatPageString(options.nextButtonFormat, page));
-                            }
-                            break;
-                        case "next_page_index":
-                            convertedFormat.append(page + 1);
-                            break;
-                        case "previous_page_index":
-                            convertedFormat.append(page - 1);
-                            break;
-                        case "command":
-                            convertedFormat.append(options.command);
-                            break;
-                        case "page_jumpers":
-                            if (getTotalPages() > 2) {
-                                convertedFormat.append(formatPageString(options.pageJumpersFormat, page));
-                            }
-                            break;
-                        case "page_jump_buttons": {
-                            convertedFormat.append(getPageJumperButtons(page));
-                            break;
-                        }
-                    }
-                } else {
-                    currentPlaceholder = new StringBuilder();
-                }
-                readingPlaceholder = !readingPlaceholder;
-                continue;
+    protected String getPageJumperButtons(final int page) {
+        final StringBuilder buttons = new StringBuilder();
+        final long changes = layout.getChangeCount();
+        appendPageJumperButtons(buttons, page, layout.getPages(source.snapshot(), changes));
+        return buttons.toString();
+    }
+
+    /**
+     * Appends the page jumper buttons for the specified page to a builder.
+     * <p>
+     * Only the visible pages (the start buttons, the current page and the end buttons) are visited, so the cost
+     * depends on the number of buttons shown rather than on the total number of pages.
+     *
+     * @param out   The builder to append to
+     * @param page  The current page number
+     * @param pages The pages of the items
+     */
+    private void appendPageJumperButtons(@NotNull StringBuilder out, final int page,
+                                         @NotNull PageLayout.Pages pages) {
+        final int totalPages = pages.getTotalPages();
+        final int startButtons = Math.min(options.pageJumperStartButtons, totalPages);
+        final long endStart = Math.max((long) totalPages - options.pageJumperEndButtons + 1, 1);
+        int groupStart = out.length();
+        boolean groupEmpty = true;
+        boolean afterGroupSeparator = false;
+        int lastPage = 1;
+        for (int i = nextPageJumper(0, page, startButtons, endStart, totalPages); i > 0;
+             i = nextPageJumper(i, page, startButtons, endStart, totalPages)) {
+            if (i - lastPage > 1) {
+                out.append(options.pageJumperGroupSeparator);
+                groupStart = out.length();
+                groupEmpty = true;
+                afterGroupSeparator = true;
             }
-            if (readingPlaceholder) {
-                currentPlaceholder.append(c);
-            } else {
-                convertedFormat.append(c);
+            if (!groupEmpty) {
+                out.append(options.pageJumperPageSeparator);
             }
+            appendPageString(out, page == i ? options.pageJumperCurrentPageTemplate : options.pageJumperPageTemplate,
+                    i, pages);
+            groupEmpty = false;
+            lastPage = i;
         }
-        return convertedFormat.toString();
+
+        // Blank trailing groups are dropped, along with their separator
+        if (isBlank(out, groupStart)) {
+            out.setLength(afterGroupSeparator ? groupStart - options.pageJumperGroupSeparator.length() : groupStart);
+        }
+    }
+
+    /**
+     * Returns the next page after {@code i} that has a page jumper button, or {@code -1} if there are none left
+     */
+    private static int nextPageJumper(final int i, final int page, final int startButtons, final long endStart,
+                                      final int totalPages) {
+        long next = Long.MAX_VALUE;
+        if (i + 1 <= startButtons) {
+            next = i + 1;
+        }
+        if (page > i && page <= totalPages) {
+            next = Math.min(next, page);
+        }
+        final long end = Math.max(endStart, i + 1);
+        if (end <= totalPages) {
+            next = Math.min(next, end);
+        }
+        return next == Long.MAX_VALUE ? -1 : (int) next;
+    }
+
+    // Returns whether the builder contents from the given index onwards are blank
+    private static boolean isBlank(@NotNull StringBuilder builder, final int from) {
+        for (int i = from; i < builder.length(); i++) {
+            if (!Character.isWhitespace(builder.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Formats a page jumper format with values
+     * Consumes pages rendered in bulk
      *
-     * @param page The page number of the jumper to format
-     * @return The formatted page jumper
+     * @see #renderPages(IntStream, PageConsumer)
      */
-    @NotNull
-    private String formatPageJumper(final int page) {
-        return formatPageString(options.pageJumperPageFormat.replaceAll("%target_page_index%",
-                Integer.toString(page)), page);
+    @FunctionalInterface
+    public interface PageConsumer {
+
+        /**
+         * Consume a rendered page
+         *
+         * @param page    The page number
+         * @param rawPage The raw string of pre-{@link MineDown}-formatted text of the page
+         */
+        void accept(int page, @NotNull String rawPage);
+
     }
 
-    @NotNull
-    protected String getPageJumperButtons(final int page) {
-        final StringJoiner pageGroups = new StringJoiner(options.pageJumperGroupSeparator);
-        StringJoiner pages = new StringJoiner(options.pageJumperPageSeparator);
-        int lastPage = 1;
-        for (int i = 1; i <= getTotalPages(); i++) {
-            if (i <= options.pageJumperStartButtons || i > getTotalPages() - options.pageJumperEndButtons || page == i) {
-                if (i - lastPage > 1) {
-                    pageGroups.add(pages.toString());
-                    pages = new StringJoiner(options.pageJumperPageSeparator);
-                }
-                if (page == i) {
-                    pages.add(formatPageString(options.pageJumperCurrentPageFormat, i));
-                } else {
-                    pages.add(formatPageString(formatPageJumper(i), i));
-                }
-                lastPage = i;
+    /**
+     * The values of the built-in placeholders for a page number
+     */
+    private final class PageValues implements FormatTemplate.PageValues {
+        private final int page;
+        @NotNull
+        private final PageLayout.Pages pages;
+
+        private PageValues(final int page, @NotNull PageLayout.Pages pages) {
+            this.page = page;
+            this.pages = pages;
+        }
+
+        @Override
+        public int getPage() {
+            return page;
+        }
+
+        @Override
+        public void appendValue(@NotNull StringBuilder out, final int token) {
+            switch (token) {
+                case FormatTemplate.FIRST_ITEM_ON_PAGE_INDEX:
+                    out.append(pages.getPageStart(page) + 1);
+                    break;
+                case FormatTemplate.LAST_ITEM_ON_PAGE_INDEX:
+                    out.append(pages.getPageEnd(page));
+                    break;
+                case FormatTemplate.TOTAL_ITEMS:
+                    out.append(pages.getTotalItems());
+                    break;
+                case FormatTemplate.CURRENT_PAGE:
+                    out.append(page);
+                    break;
+                case FormatTemplate.TOTAL_PAGES:
+                    out.append(pages.getTotalPages());
+                    break;
+                case FormatTemplate.NEXT_PAGE_INDEX:
+                    out.append(page + 1);
+                    break;
+                case FormatTemplate.PREVIOUS_PAGE_INDEX:
+                    out.append(page - 1);
+                    break;
             }
         }
-        if (!pages.toString().isBlank()) {
-            pageGroups.add(pages.toString());
+
+        @Override
+        public boolean isShown(final int token) {
+            switch (token) {
+                case FormatTemplate.PREVIOUS_PAGE_BUTTON:
+                    return page > 1;
+                case FormatTemplate.NEXT_PAGE_BUTTON:
+                    return page < pages.getTotalPages();
+                default:
+                    return pages.getTotalPages() > 2;
+            }
+        }
+
+        @Override
+        public void appendPageJumpButtons(@NotNull StringBuilder out) {
+            appendPageJumperButtons(out, page, pages);
+        }
+    }
+
+    /**
+     * A consistent read of one page from the {@link PageSource}, taken once per render
+     */
+    private static final class Snapshot {
+        private final int page;
+        private final int offset;
+        @NotNull
+        private final PageLayout.Pages pages;
+        @NotNull
+        private final List<String> items;
+        @Nullable
+        private final RenderTimer timer;
+
+        private Snapshot(final int page, final int offset, @NotNull PageLayout.Pages pages,
+                         @NotNull List<String> items, @Nullable RenderTimer timer) {
+            this.page = page;
+            this.offset = offset;
+            this.pages = pages;
+            this.items = items;
+            this.timer = timer;
         }
-        return pageGroups.toString();
     }
 
 }
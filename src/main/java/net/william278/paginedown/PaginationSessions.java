@@ -0,0 +1,308 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A registry of each viewer's {@link PaginatedList}, keyed by viewer and command, so that page navigation commands
+ * look up the list (and its cached pages) the viewer is already paging through instead of rebuilding it
+ * <p>
+ * Sessions expire once they have not been accessed for the idle timeout. Once there are more than the maximum
+ * number of sessions, the least recently accessed of a small, uniformly random sample of sessions is evicted, which
+ * approximates evicting the least recently accessed session without scanning every session. Lookups do not take a
+ * global lock.
+ */
+public final class PaginationSessions {
+
+    // The number of sessions compared to pick one to evict
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final Map<Key, Session> sessions = new ConcurrentHashMap<>();
+
+    // The keys of sessions, to sample uniformly for eviction; may hold keys of sessions since removed
+    private final Object sampleLock = new Object();
+    private Key[] sampleKeys = new Key[16];
+    private int sampleCount;
+    private final long idleTimeoutNanos;
+    private final int maxSessions;
+    private final LongSupplier clock;
+
+    // When expired sessions were last swept, in clock nanos
+    private final AtomicLong lastSweep;
+
+    /**
+     * Create a new session registry
+     *
+     * @param idleTimeout How long a session is kept after it was last accessed
+     * @param maxSessions The maximum number of sessions to keep
+     */
+    public PaginationSessions(@NotNull Duration idleTimeout, final int maxSessions) {
+        this(idleTimeout, maxSessions, System::nanoTime);
+    }
+
+    PaginationSessions(@NotNull Duration idleTimeout, final int maxSessions, @NotNull LongSupplier clock) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new PaginationException("Session idle timeout must be > 0");
+        }
+        if (maxSessions < 1) {
+            throw new PaginationException("Maximum sessions must be >= 1");
+        }
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.maxSessions = maxSessions;
+        this.clock = clock;
+        this.lastSweep = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Returns a viewer's session list for a command, if they have one that has not expired
+     *
+     * @param viewer  The {@link UUID} of the viewer
+     * @param command The command the list is paged through
+     * @return The viewer's {@link PaginatedList}, or {@code null} if they have no session
+     */
+    @Nullable
+    public PaginatedList get(@NotNull UUID viewer, @NotNull String command) {
+        final Key key = new Key(viewer, command);
+        final Session session = sessions.get(key);
+        if (session == null) {
+            return null;
+        }
+        final long now = clock.getAsLong();
+        if (session.isExpired(now, idleTimeoutNanos)) {
+            sessions.remove(key, session);
+            return null;
+        }
+        session.lastAccess = now;
+        return session.list;
+    }
+
+    /**
+     * Returns a viewer's session list for a command, starting a new session with a list from the factory if they
+     * have none. The factory is not called while holding any lock, so may rebuild the list's items.
+     *
+     * @param viewer  The {@link UUID} of the viewer
+     * @param command The command the list is paged through
+     * @param factory Creates the list for a new session
+     * @return The viewer's {@link PaginatedList}
+     */
+    @NotNull
+    public PaginatedList get(@NotNull UUID viewer, @NotNull String command,
+                             @NotNull Supplier<PaginatedList> factory) {
+        final PaginatedList existing = get(viewer, command);
+        if (existing != null) {
+            return existing;
+        }
+        final Session created = new Session(factory.get(), clock.getAsLong());
+        final Session session = sessions.merge(new Key(viewer, command), created,
+                (current, replacement) -> current.isExpired(replacement.lastAccess, idleTimeoutNanos)
+                        ? replacement : current);
+        if (session == created) {
+            track(new Key(viewer, command));
+            afterWrite(created.lastAccess);
+        }
+        return session.list;
+    }
+
+    /**
+     * Starts a viewer's session for a command, replacing any existing session
+     *
+     * @param viewer  The {@link UUID} of the viewer
+     * @param command The command the list is paged through
+     * @param list    The {@link PaginatedList} for the session
+     */
+    public void put(@NotNull UUID viewer, @NotNull String command, @NotNull PaginatedList list) {
+        final long now = clock.getAsLong();
+        final Key key = new Key(viewer, command);
+        if (sessions.put(key, new Session(list, now)) == null) {
+            track(key);
+        }
+        afterWrite(now);
+    }
+
+    /**
+     * Ends a viewer's session for a command
+     *
+     * @param viewer  The {@link UUID} of the viewer
+     * @param command The command the list is paged through
+     */
+    public void invalidate(@NotNull UUID viewer, @NotNull String command) {
+        sessions.remove(new Key(viewer, command));
+    }
+
+    /**
+     * Ends all of a viewer's sessions, such as when they disconnect
+     *
+     * @param viewer The {@link UUID} of the viewer
+     */
+    public void invalidate(@NotNull UUID viewer) {
+        sessions.keySet().removeIf(key -> key.viewer.equals(viewer));
+    }
+
+    /**
+     * Ends all sessions
+     */
+    public void clear() {
+        sessions.clear();
+        synchronized (sampleLock) {
+            sampleKeys = new Key[16];
+            sampleCount = 0;
+        }
+    }
+
+    /**
+     * Removes expired sessions. Expired sessions are also removed as they are looked up and periodically as new
+     * sessions are started, so calling this is only needed to release memory sooner.
+     */
+    public void cleanUp() {
+        final long now = clock.getAsLong();
+        lastSweep.set(now);
+        sessions.values().removeIf(session -> session.isExpired(now, idleTimeoutNanos));
+    }
+
+    /**
+     * Returns the number of sessions, including any expired sessions not yet removed
+     *
+     * @return The number of sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    // Sweep expired sessions at most once a quarter of the idle timeout, then bound the number of sessions
+    private void afterWrite(final long now) {
+        final long last = lastSweep.get();
+        if (now - last >= idleTimeoutNanos / 4 && lastSweep.compareAndSet(last, now)) {
+            sessions.values().removeIf(session -> session.isExpired(now, idleTimeoutNanos));
+        }
+        while (sessions.size() > maxSessions) {
+            if (!evictLeastRecentlyAccessed(now)) {
+                return;
+            }
+        }
+    }
+
+    // Records the key of a new session, so it can be sampled for eviction
+    private void track(@NotNull Key key) {
+        synchronized (sampleLock) {
+            // Keys of removed sessions are dropped as they are sampled; rebuild if too many build up unsampled
+            if (sampleCount >= 2 * Math.max(sessions.size(), maxSessions) + EVICTION_SAMPLE_SIZE) {
+                sampleKeys = sessions.keySet().toArray(new Key[0]);
+                sampleCount = sampleKeys.length;
+            }
+            if (sampleCount == sampleKeys.length) {
+                sampleKeys = Arrays.copyOf(sampleKeys, Math.max(16, sampleCount * 2));
+            }
+            sampleKeys[sampleCount++] = key;
+        }
+    }
+
+    // Evicts the least recently accessed of a uniformly random sample of sessions
+    private boolean evictLeastRecentlyAccessed(final long now) {
+        synchronized (sampleLock) {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            int eldestSlot = -1;
+            Session eldest = null;
+            for (int sampled = 0; sampled < EVICTION_SAMPLE_SIZE && sampleCount > 0; sampled++) {
+                // Small registries are sampled in full, so they are evicted exactly least recently accessed first
+                final int slot = sampleCount <= EVICTION_SAMPLE_SIZE ? sampled : random.nextInt(sampleCount);
+                if (slot >= sampleCount) {
+                    break;
+                }
+                final Session session = sessions.get(sampleKeys[slot]);
+                if (session == null) {
+                    untrack(slot);
+                    sampled--;
+                    continue;
+                }
+                if (eldest == null || now - session.lastAccess > now - eldest.lastAccess) {
+                    eldest = session;
+                    eldestSlot = slot;
+                }
+            }
+            if (eldest == null) {
+                return false;
+            }
+            final Key key = sampleKeys[eldestSlot];
+            untrack(eldestSlot);
+            return sessions.remove(key, eldest);
+        }
+    }
+
+    // Removes a key from the sample by moving the last key into its slot
+    private void untrack(final int slot) {
+        sampleKeys[slot] = sampleKeys[--sampleCount];
+        sampleKeys[sampleCount] = null;
+    }
+
+    private static final class Key {
+        private final UUID viewer;
+        private final String command;
+
+        private Key(@NotNull UUID viewer, @NotNull String command) {
+            this.viewer = viewer;
+            this.command = command;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return viewer.equals(key.viewer) && command.equals(key.command);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(viewer, command);
+        }
+    }
+
+    private static final class Session {
+        private final PaginatedList list;
+        private volatile long lastAccess;
+
+        private Session(@NotNull PaginatedList list, final long lastAccess) {
+            this.list = list;
+            this.lastAccess = lastAccess;
+        }
+
+        private boolean isExpired(final long now, final long idleTimeoutNanos) {
+            return now - lastAccess >= idleTimeoutNanos;
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link PageSource} that fetches a window of neighbouring items around each requested range from a delegate
+ * source, so that neighbouring pages can be served without another fetch
+ * <p>
+ * A few windows are kept so that viewers browsing different regions of the source do not evict each other's
+ * windows. Windows are discarded once they are older than the expiry, when the total item count reported by the
+ * delegate changes, or when the delegate notifies that its items changed.
+ */
+final class ReadAheadPageSource implements PageSource {
+
+    // The number of windows kept, so viewers of different regions don't thrash a single window
+    private static final int MAX_WINDOWS = 4;
+
+    @NotNull
+    private final PageSource delegate;
+    private final int readAhead;
+    private final long expiryNanos;
+    @NotNull
+    private final LongSupplier clock;
+    // Copied on write, most recently fetched first
+    @NotNull
+    private volatile Window[] windows = new Window[0];
+    private volatile int lastSize = -1;
+
+    ReadAheadPageSource(@NotNull PageSource delegate, final int readAhead, final long expiryNanos) {
+        this(delegate, readAhead, expiryNanos, System::nanoTime);
+    }
+
+    ReadAheadPageSource(@NotNull PageSource delegate, final int readAhead, final long expiryNanos,
+                        @NotNull LongSupplier clock) {
+        this.delegate = delegate;
+        this.readAhead = readAhead;
+        this.expiryNanos = expiryNanos;
+        this.clock = clock;
+    }
+
+    @Override
+    public int size() {
+        final int size = delegate.size();
+        lastSize = size;
+        return size;
+    }
+
+    // Sources that take in-memory snapshots do not need reading ahead
+    @NotNull
+    @Override
+    public PageSource snapshot() {
+        final PageSource snapshot = delegate.snapshot();
+        return snapshot != delegate ? snapshot : this;
+    }
+
+    @NotNull
+    @Override
+    public List<String> getItems(int offset, int limit) {
+        final long now = clock.getAsLong();
+        final int size = lastSize;
+        Window current = null;
+        for (Window window : windows) {
+            if (window.isValid(now, size, expiryNanos) && window.contains(offset, limit)) {
+                current = window;
+                break;
+            }
+        }
+        if (current == null) {
+            final int windowOffset = Math.max(0, offset - readAhead);
+            final int windowLimit = (int) Math.min(Integer.MAX_VALUE, (long) offset - windowOffset + limit + readAhead);
+            // Copied, so that a window over a live view of the delegate's items cannot change or fail once edited
+            current = new Window(windowOffset, List.copyOf(delegate.getItems(windowOffset, windowLimit)), size, now);
+            store(current, now);
+        }
+        final int from = offset - current.offset;
+        return current.items.subList(from, Math.min(current.items.size(), from + limit));
+    }
+
+    /**
+     * Discard every fetched window, so the next request fetches from the delegate again
+     */
+    synchronized void invalidate() {
+        windows = new Window[0];
+    }
+
+    // Publishes a fetched window, dropping windows that are no longer valid and the oldest beyond the limit
+    private synchronized void store(@NotNull Window window, final long now) {
+        final Window[] current = windows;
+        final Window[] updated = new Window[Math.min(MAX_WINDOWS, current.length + 1)];
+        updated[0] = window;
+        int count = 1;
+        for (int i = 0; i < current.length && count < updated.length; i++) {
+            if (current[i].isValid(now, window.totalItems, expiryNanos)) {
+                updated[count++] = current[i];
+            }
+        }
+        windows = count == updated.length ? updated : Arrays.copyOf(updated, count);
+    }
+
+    /**
+     * A fetched range of items
+     */
+    private static final class Window {
+        private final int offset;
+        @NotNull
+        private final List<String> items;
+        private final int totalItems;
+        private final long fetchedAt;
+
+        private Window(final int offset, @NotNull List<String> items, final int totalItems, final long fetchedAt) {
+            this.offset = offset;
+            this.items = items;
+            this.totalItems = totalItems;
+            this.fetchedAt = fetchedAt;
+        }
+
+        private boolean contains(final int offset, final int limit) {
+            return offset >= this.offset && (long) offset + limit <= (long) this.offset + items.size();
+        }
+
+        private boolean isValid(final long now, final int totalItems, final long expiryNanos) {
+            return this.totalItems == totalItems && now - fetchedAt < expiryNanos;
+        }
+    }
+
+}
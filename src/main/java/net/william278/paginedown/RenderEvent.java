@@ -0,0 +1,166 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Timings and details of a single page render, passed to a {@link RenderListener}
+ */
+@SuppressWarnings("unused")
+public final class RenderEvent {
+
+    @NotNull
+    private final Type type;
+    private final int page;
+    private final int outputLength;
+    @NotNull
+    private final CacheStatus cacheStatus;
+    private final long[] stageNanos;
+    private final long totalNanos;
+
+    RenderEvent(@NotNull Type type, int page, int outputLength, @NotNull CacheStatus cacheStatus,
+                long[] stageNanos, long totalNanos) {
+        this.type = type;
+        this.page = page;
+        this.outputLength = outputLength;
+        this.cacheStatus = cacheStatus;
+        this.stageNanos = stageNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * Returns the form the page was rendered in
+     *
+     * @return The render type
+     */
+    @NotNull
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the page number that was rendered
+     *
+     * @return The page number
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * Returns the length of the rendered raw page
+     *
+     * @return The number of characters in the raw page, or {@code -1} for {@link Type#COMPONENT} renders
+     */
+    public int getOutputLength() {
+        return outputLength;
+    }
+
+    /**
+     * Returns whether the page was served from the page cache
+     *
+     * @return The page cache status of the render
+     */
+    @NotNull
+    public CacheStatus getCacheStatus() {
+        return cacheStatus;
+    }
+
+    /**
+     * Returns the time spent in a stage of the render. Stages are skipped, taking no time, when the page is
+     * served from the page cache.
+     *
+     * @param stage The render stage
+     * @return The time spent in the stage, in nanoseconds
+     */
+    public long getStageNanos(@NotNull Stage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    /**
+     * Returns the total time taken by the render, including reading the page from the {@link PageSource}
+     *
+     * @return The total render time, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * The form a page is rendered in
+     */
+    public enum Type {
+        /**
+         * A raw MineDown string, from {@link PaginatedList#getRawPage(int)}
+         */
+        RAW_PAGE,
+        /**
+         * A {@link de.themoep.minedown.adventure.MineDown} message, from {@link PaginatedList#getPage(int)}
+         */
+        MINEDOWN,
+        /**
+         * An Adventure component, from {@link PaginatedList#getComponent(int)}
+         */
+        COMPONENT
+    }
+
+    /**
+     * A stage of a page render
+     */
+    public enum Stage {
+        /**
+         * Formatting the header
+         */
+        HEADER,
+        /**
+         * Reading the page's items from the source, and escaping or converting them
+         */
+        ITEMS,
+        /**
+         * Formatting the footer, including the page jumpers
+         */
+        FOOTER,
+        /**
+         * Parsing MineDown: the whole page for {@link Type#MINEDOWN} renders, or the header and footer for
+         * {@link Type#COMPONENT} renders
+         */
+        PARSE
+    }
+
+    /**
+     * Whether a render was served from the page cache
+     */
+    public enum CacheStatus {
+        /**
+         * The page cache is disabled
+         */
+        UNCACHED,
+        /**
+         * The page was found in the page cache
+         */
+        HIT,
+        /**
+         * The page was not in the page cache, and was rendered
+         */
+        MISS
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Provides the default {@link Executor}s used for asynchronous page rendering
+ */
+final class RenderExecutors {
+
+    @Nullable
+    private static final Executor VIRTUAL_THREAD_EXECUTOR = createVirtualThreadExecutor();
+
+    private RenderExecutors() {
+    }
+
+    /**
+     * Returns the executor to render pages on for the given options
+     *
+     * @param options The {@link ListOptions} of the list being rendered
+     * @return The supplied render executor if set; otherwise a virtual-thread-per-render executor if enabled and
+     * running on Java 21+; otherwise the common {@link ForkJoinPool}
+     */
+    @NotNull
+    static Executor get(@NotNull ListOptions options) {
+        if (options.renderExecutor != null) {
+            return options.renderExecutor;
+        }
+        if (options.virtualThreadRendering && VIRTUAL_THREAD_EXECUTOR != null) {
+            return VIRTUAL_THREAD_EXECUTOR;
+        }
+        return ForkJoinPool.commonPool();
+    }
+
+    // Virtual threads are looked up reflectively, as the library targets Java 11
+    @Nullable
+    private static Executor createVirtualThreadExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+}
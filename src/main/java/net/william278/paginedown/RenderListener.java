@@ -0,0 +1,42 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives a {@link RenderEvent} with the timings of each page render of a {@link PaginatedList}
+ * <p>
+ * Listeners are called on the rendering thread, so should return quickly and be safe to call from multiple threads.
+ *
+ * @see ListOptions.Builder#setRenderListener(RenderListener)
+ * @see RenderStatistics
+ */
+@FunctionalInterface
+public interface RenderListener {
+
+    /**
+     * Called after a page has been rendered
+     *
+     * @param event The render event
+     */
+    void onRender(@NotNull RenderEvent event);
+
+}
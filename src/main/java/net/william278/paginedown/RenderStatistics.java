@@ -0,0 +1,173 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link RenderListener} that aggregates render counts, stage timings and a latency histogram without locking
+ * <p>
+ * Latencies are recorded in power-of-two nanosecond buckets, so percentiles are accurate to within a factor of two.
+ * A single instance can be shared by any number of lists.
+ */
+@SuppressWarnings("unused")
+public final class RenderStatistics implements RenderListener {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder outputCharacters = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder[] stageNanos = new LongAdder[RenderEvent.Stage.values().length];
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(BUCKETS);
+
+    public RenderStatistics() {
+        for (int i = 0; i < stageNanos.length; i++) {
+            stageNanos[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void onRender(@NotNull RenderEvent event) {
+        renders.increment();
+        switch (event.getCacheStatus()) {
+            case HIT:
+                cacheHits.increment();
+                break;
+            case MISS:
+                cacheMisses.increment();
+                break;
+        }
+        if (event.getOutputLength() > 0) {
+            outputCharacters.add(event.getOutputLength());
+        }
+        for (RenderEvent.Stage stage : RenderEvent.Stage.values()) {
+            stageNanos[stage.ordinal()].add(event.getStageNanos(stage));
+        }
+        final long nanos = Math.max(0, event.getTotalNanos());
+        totalNanos.add(nanos);
+        latencyBuckets.incrementAndGet(BUCKETS - 1 - Long.numberOfLeadingZeros(nanos | 1));
+    }
+
+    /**
+     * Returns the number of renders recorded
+     *
+     * @return The render count
+     */
+    public long getRenderCount() {
+        return renders.sum();
+    }
+
+    /**
+     * Returns the number of renders served from a page cache
+     *
+     * @return The page cache hit count
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Returns the number of renders that missed a page cache
+     *
+     * @return The page cache miss count
+     */
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * Returns the total number of raw page characters rendered
+     *
+     * @return The total output length
+     */
+    public long getOutputCharacters() {
+        return outputCharacters.sum();
+    }
+
+    /**
+     * Returns the total time spent rendering
+     *
+     * @return The total render time, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Returns the total time spent in a render stage
+     *
+     * @param stage The render stage
+     * @return The total time spent in the stage, in nanoseconds
+     */
+    public long getStageNanos(@NotNull RenderEvent.Stage stage) {
+        return stageNanos[stage.ordinal()].sum();
+    }
+
+    /**
+     * Returns an upper bound on the render latency of the given percentile of renders
+     *
+     * @param percentile The percentile, between {@code 0} and {@code 100}
+     * @return The latency upper bound, in nanoseconds, or {@code 0} if no renders have been recorded
+     */
+    public long getLatencyPercentile(double percentile) {
+        final long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = latencyBuckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final long target = (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, target)) {
+                return i >= BUCKETS - 2 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Clears all recorded statistics
+     */
+    public void reset() {
+        renders.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+        outputCharacters.reset();
+        totalNanos.reset();
+        for (LongAdder stage : stageNanos) {
+            stage.reset();
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            latencyBuckets.set(i, 0);
+        }
+    }
+
+}
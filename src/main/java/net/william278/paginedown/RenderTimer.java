@@ -0,0 +1,96 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Times the stages of one page render for a {@link RenderListener}
+ * <p>
+ * Timers are only created when a listener is registered; render code skips timing when the timer is {@code null}.
+ */
+final class RenderTimer {
+
+    @NotNull
+    private final RenderListener listener;
+    @NotNull
+    private final RenderEvent.Type type;
+    private final int page;
+    private final long start;
+    private long lap;
+    private final long[] stageNanos = new long[RenderEvent.Stage.values().length];
+    @NotNull
+    private RenderEvent.CacheStatus cacheStatus = RenderEvent.CacheStatus.UNCACHED;
+
+    private RenderTimer(@NotNull RenderListener listener, @NotNull RenderEvent.Type type, int page) {
+        this.listener = listener;
+        this.type = type;
+        this.page = page;
+        this.start = System.nanoTime();
+        this.lap = start;
+    }
+
+    /**
+     * Start timing a render
+     *
+     * @param options The {@link ListOptions} of the list being rendered
+     * @param type    The form the page is being rendered in
+     * @param page    The page number being rendered
+     * @return The timer, or {@code null} if no {@link RenderListener} is registered
+     */
+    @Nullable
+    static RenderTimer start(@NotNull ListOptions options, @NotNull RenderEvent.Type type, int page) {
+        return options.renderListener != null ? new RenderTimer(options.renderListener, type, page) : null;
+    }
+
+    /**
+     * Attribute the time since the last lap to a stage
+     *
+     * @param stage The stage that has just finished
+     */
+    void lap(@NotNull RenderEvent.Stage stage) {
+        final long now = System.nanoTime();
+        stageNanos[stage.ordinal()] += now - lap;
+        lap = now;
+    }
+
+    /**
+     * Skip the time since the last lap, so it is not attributed to the next stage
+     */
+    void skip() {
+        lap = System.nanoTime();
+    }
+
+    void setCacheHit(boolean hit) {
+        cacheStatus = hit ? RenderEvent.CacheStatus.HIT : RenderEvent.CacheStatus.MISS;
+    }
+
+    /**
+     * Finish timing the render and notify the listener
+     *
+     * @param outputLength The length of the rendered output, or {@code -1} if not applicable
+     */
+    void finish(int outputLength) {
+        listener.onRender(new RenderEvent(type, page, outputLength, cacheStatus, stageNanos,
+                System.nanoTime() - start));
+    }
+
+}
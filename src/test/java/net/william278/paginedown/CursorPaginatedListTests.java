@@ -0,0 +1,124 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+public class CursorPaginatedListTests {
+
+    private final ListOptions options = new ListOptions.Builder()
+            .setItemsPerPage(3)
+            .setCommand("list")
+            .setSpaceAfterHeader(false)
+            .setSpaceBeforeFooter(false)
+            .setHeaderFormat("Items %first_item_on_page_index%-%last_item_on_page_index% of %total_items%")
+            .setFooterFormat("%previous_page_button%|%next_page_button%")
+            .setPreviousButtonFormat("[<](run_command=/%command% %previous_page_index%)")
+            .setNextButtonFormat("[>](run_command=/%command% %next_page_index%)")
+            .build();
+
+    // A keyset source over items sorted by id; cursors are "a<id>" for after and "b<id>" for before an id
+    private static final class KeysetSource implements CursorSource {
+        private final ConcurrentSkipListMap<Integer, String> items = new ConcurrentSkipListMap<>();
+
+        @NotNull
+        @Override
+        public Window fetch(@Nullable String cursor, int limit) {
+            final List<Map.Entry<Integer, String>> page = new ArrayList<>();
+            if (cursor != null && cursor.startsWith("b")) {
+                final NavigableMap<Integer, String> before = items.headMap(Integer.parseInt(cursor.substring(1)), false);
+                before.descendingMap().entrySet().stream().limit(limit).forEach(page::add);
+                Collections.reverse(page);
+            } else {
+                final NavigableMap<Integer, String> after = cursor == null
+                        ? items : items.tailMap(Integer.parseInt(cursor.substring(1)), false);
+                after.entrySet().stream().limit(limit).forEach(page::add);
+            }
+            final List<String> pageItems = new ArrayList<>();
+            page.forEach(entry -> pageItems.add(entry.getValue()));
+            if (page.isEmpty()) {
+                return Window.of(pageItems, null, null);
+            }
+            final int first = page.get(0).getKey();
+            final int last = page.get(page.size() - 1).getKey();
+            return Window.of(pageItems,
+                    items.lowerKey(first) != null ? "b" + first : null,
+                    items.higherKey(last) != null ? "a" + last : null);
+        }
+    }
+
+    @Test
+    public void testCursorPagesFollowLinks() {
+        final KeysetSource source = new KeysetSource();
+        for (int i = 10; i <= 80; i += 10) {
+            source.items.put(i, "Item " + i);
+        }
+        final CursorPaginatedList list = CursorPaginatedList.of(source, options);
+
+        Assertions.assertEquals("Items ?-? of ?\nItem 10\nItem 20\nItem 30\n|[>](run_command=/list a30)",
+                list.getRawPage(null));
+        Assertions.assertEquals("Items ?-? of ?\nItem 40\nItem 50\nItem 60\n"
+                + "[<](run_command=/list b40)|[>](run_command=/list a60)", list.getRawPage("a30"));
+        Assertions.assertEquals("Items ?-? of ?\nItem 70\nItem 80\n[<](run_command=/list b70)|",
+                list.getRawPage("a60"));
+    }
+
+    @Test
+    public void testCursorPagesDoNotShift() {
+        final KeysetSource source = new KeysetSource();
+        for (int i = 10; i <= 80; i += 10) {
+            source.items.put(i, "Item " + i);
+        }
+        final CursorPaginatedList list = CursorPaginatedList.of(source, options);
+        final String page = list.getRawPage("a30");
+        source.items.put(5, "Item 5");
+        source.items.put(1, "Item 1");
+        Assertions.assertEquals(page, list.getRawPage("a30"));
+        Assertions.assertTrue(list.getRawPage("b40").contains("Item 20\nItem 30"));
+    }
+
+    @Test
+    public void testKnownWindowPosition() {
+        final CursorPaginatedList list = CursorPaginatedList.of((cursor, limit) -> CursorSource.Window.of(
+                List.of("Item 4", "Item 5", "Item 6"), "b4", "a6", 3, 8), options);
+        Assertions.assertTrue(list.getRawPage("a3").startsWith("Items 4-6 of 8\n"));
+    }
+
+    @Test
+    public void testUnsafeCursorsRejected() {
+        Assertions.assertThrows(PaginationException.class,
+                () -> CursorSource.Window.of(List.of("Item"), null, "a1) [Click](open_url=https://example.com"));
+        Assertions.assertThrows(PaginationException.class, () -> CursorSource.Window.of(List.of("Item"), "a b", null));
+        Assertions.assertThrows(PaginationException.class, () -> CursorSource.Window.of(List.of("Item"), "**", null));
+        Assertions.assertEquals("3f2a-9c:1.5",
+                CursorSource.Window.of(List.of("Item"), null, "3f2a-9c:1.5").getNextCursor());
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class LivePageSourceTests {
+
+    @Test
+    public void testMutationsMatchList() {
+        final Random random = new Random(278);
+        final List<String> expected = new ArrayList<>();
+        final LivePageSource source = new LivePageSource();
+        for (int i = 0; i < 5000; i++) {
+            final int operation = random.nextInt(10);
+            final String item = "Item " + i;
+            if (operation < 5 || expected.isEmpty()) {
+                expected.add(item);
+                source.add(item);
+            } else if (operation < 7) {
+                final int index = random.nextInt(expected.size() + 1);
+                expected.add(index, item);
+                source.add(index, item);
+            } else if (operation < 9) {
+                final int index = random.nextInt(expected.size());
+                Assertions.assertEquals(expected.set(index, item), source.set(index, item));
+            } else {
+                final int index = random.nextInt(expected.size());
+                Assertions.assertEquals(expected.remove(index), source.remove(index));
+            }
+        }
+        Assertions.assertEquals(expected.size(), source.size());
+        Assertions.assertEquals(expected, source.getItems(0, source.size()));
+        Assertions.assertEquals(expected.subList(250, 900), source.getItems(250, 650));
+        Assertions.assertEquals(expected.get(1234), source.get(1234));
+    }
+
+    @Test
+    public void testSnapshotsAreImmutable() {
+        final LivePageSource source = new LivePageSource(List.of("A", "B", "C"));
+        final PageSource snapshot = source.snapshot();
+        source.set(1, "Changed");
+        source.add("D");
+        Assertions.assertEquals(3, snapshot.size());
+        Assertions.assertEquals(List.of("A", "B", "C"), snapshot.getItems(0, 3));
+    }
+
+    @Test
+    public void testChangesInvalidateAffectedPages() {
+        final List<String> items = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            items.add("Item " + i);
+        }
+        final LivePageSource source = new LivePageSource(items);
+        final PaginatedList list = PaginatedList.of(source, new ListOptions.Builder()
+                .setItemsPerPage(10)
+                .setPageCacheSize(10)
+                .setHeaderFormat("Page %current_page%")
+                .setFooterFormat("")
+                .build());
+        for (int page = 1; page <= 5; page++) {
+            list.getRawPage(page);
+        }
+        source.set(23, "Changed");
+        Assertions.assertTrue(list.getRawPage(3).contains("Changed"));
+        list.getRawPage(1);
+        list.getRawPage(5);
+        Assertions.assertEquals(6, list.getCacheMisses());
+        Assertions.assertEquals(2, list.getCacheHits());
+
+        // Adding items shifts every later page, and changes the totals
+        source.add(0, "First");
+        Assertions.assertTrue(list.getRawPage(1).contains("First"));
+        Assertions.assertEquals(6, list.getTotalPages());
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MappedFilePageSourceTests {
+
+    @Test
+    public void testMappedLinesMatchFile() throws IOException {
+        final Path file = Files.createTempFile("paginedown", ".log");
+        try {
+            final List<String> lines = new ArrayList<>();
+            final StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                final String line = i % 9 == 0 ? "Ünïcödé ✦ line " + i : i % 13 == 0 ? "" : "Line " + i;
+                lines.add(line);
+                text.append(line).append(i % 5 == 0 ? "\r\n" : "\n");
+            }
+            Files.writeString(file, text);
+
+            try (MappedFilePageSource source = MappedFilePageSource.open(file)) {
+                Assertions.assertEquals(lines.size(), source.size());
+                Assertions.assertEquals(lines, source.getItems(0, source.size()));
+                Assertions.assertEquals(lines.subList(130, 140), source.getItems(130, 10));
+                Assertions.assertEquals(PaginatedList.of(lines).getRawPage(37),
+                        PaginatedList.of(source, new ListOptions.Builder().build()).getRawPage(37));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRefreshIndexesAppendedLines() throws IOException {
+        final Path file = Files.createTempFile("paginedown", ".log");
+        try {
+            Files.writeString(file, "First\nSecond\nPart");
+            try (MappedFilePageSource source = MappedFilePageSource.open(file)) {
+                final PaginatedList list = PaginatedList.of(source, new ListOptions.Builder()
+                        .setItemsPerPage(2)
+                        .setPageCacheSize(4)
+                        .build());
+                Assertions.assertEquals(List.of("First", "Second", "Part"), source.getItems(0, 10));
+                final String page = list.getRawPage(2);
+                Assertions.assertFalse(source.refresh());
+
+                Files.writeString(file, "ial\nFourth\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+                Assertions.assertTrue(source.refresh());
+                Assertions.assertEquals(List.of("First", "Second", "Partial", "Fourth"), source.getItems(0, 10));
+                Assertions.assertNotEquals(page, list.getRawPage(2));
+                Assertions.assertTrue(list.getRawPage(2).contains("Partial"));
+
+                Files.writeString(file, "Rotated\n");
+                Assertions.assertTrue(source.refresh());
+                Assertions.assertEquals(List.of("Rotated"), source.getItems(0, 10));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
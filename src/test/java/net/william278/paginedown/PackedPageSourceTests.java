@@ -0,0 +1,65 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PackedPageSourceTests {
+
+    @Test
+    public void testPackedItemsMatchList() {
+        final List<String> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(i % 7 == 0 ? "Ünïcödé ✦ item " + i : i % 11 == 0 ? "" : "Item " + i);
+        }
+        final PackedPageSource source = PackedPageSource.of(items);
+        Assertions.assertEquals(items.size(), source.size());
+        Assertions.assertEquals(items, source.getItems(0, source.size()));
+        Assertions.assertEquals(items.subList(990, 1000), source.getItems(990, 50));
+
+        final ListOptions options = new ListOptions.Builder().setPageCacheSize(8).build();
+        final PaginatedList packed = PaginatedList.of(source, options);
+        Assertions.assertEquals(PaginatedList.of(items).getRawPage(42), packed.getRawPage(42));
+        packed.getRawPage(42);
+        Assertions.assertEquals(1, packed.getCacheHits());
+    }
+
+    @Test
+    public void testPackedLayout() {
+        final List<String> items = new ArrayList<>();
+        long utf8Length = 0;
+        for (int i = 0; i < 10_000; i++) {
+            final String item = i % 7 == 0 ? "Ünïcödé ✦ item " + i : "Item " + i;
+            items.add(item);
+            utf8Length += item.getBytes(StandardCharsets.UTF_8).length;
+        }
+        final PackedPageSource source = PackedPageSource.of(items);
+
+        // Items are held as their UTF-8 bytes in one array, with one offset per item boundary
+        Assertions.assertEquals(utf8Length, source.getTextLength());
+        Assertions.assertEquals(items.size() + 1, source.getOffsetCount());
+    }
+
+}
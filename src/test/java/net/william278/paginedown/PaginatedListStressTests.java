@@ -0,0 +1,203 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency stress tests, run with the {@code stressTest} Gradle task. Render throughput is measured by the JMH
+ * benchmarks instead, as timings are too noisy to assert on.
+ */
+@Tag("stress")
+public class PaginatedListStressTests {
+
+    private static final int ITEMS_PER_PAGE = 10;
+    private static final long STRESS_MILLIS = 2000;
+    // The writer keeps the item count within these bounds, so every page up to the minimum's stays in bounds
+    private static final int MIN_ITEMS = 395;
+    private static final int MAX_ITEMS = 600;
+    // The number of recent versions of the items kept to check rendered pages against
+    private static final int HISTORY_SIZE = 1 << 12;
+
+    private final ListOptions options = new ListOptions.Builder()
+            .setHeaderFormat("%first_item_on_page_index%-%last_item_on_page_index% of %total_items%")
+            .setFooterFormat("")
+            .setSpaceAfterHeader(false)
+            .setItemsPerPage(ITEMS_PER_PAGE)
+            .setPageCacheSize(16)
+            .setItemComponentCacheSize(256)
+            .build();
+
+    @Test
+    public void testConcurrentRenderingWhileMutating() throws InterruptedException {
+        final LivePageSource source = new LivePageSource();
+        for (int i = 0; i < (MIN_ITEMS + MAX_ITEMS) / 2; i++) {
+            source.add(versionedItem(i, 0));
+        }
+        final PaginatedList list = PaginatedList.of(source, options);
+        final AtomicReferenceArray<Version> history = new AtomicReferenceArray<>(HISTORY_SIZE);
+        final AtomicInteger published = new AtomicInteger();
+        history.set(0, new Version(0, source.snapshot()));
+        final int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final LongAdder renders = new LongAdder();
+        final LongAdder verified = new LongAdder();
+
+        // Inserts, removes and replaces items, recording each version of the items it publishes
+        final Thread writer = new Thread(() -> {
+            try {
+                int nextId = source.size();
+                while (running.get()) {
+                    final ThreadLocalRandom random = ThreadLocalRandom.current();
+                    final int version = published.get() + 1;
+                    final int size = source.size();
+                    final int operation = size <= MIN_ITEMS ? 0 : size >= MAX_ITEMS ? 1 : random.nextInt(3);
+                    if (operation == 0) {
+                        source.add(random.nextInt(size + 1), versionedItem(nextId++, version));
+                    } else if (operation == 1) {
+                        source.remove(random.nextInt(size));
+                    } else {
+                        final int index = random.nextInt(size);
+                        source.set(index, versionedItem(itemId(source.get(index)), version));
+                    }
+                    history.set(version & (HISTORY_SIZE - 1), new Version(version, source.snapshot()));
+                    published.set(version);
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        });
+        final List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            readers.add(new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        final ThreadLocalRandom random = ThreadLocalRandom.current();
+                        final int page = 1 + random.nextInt((MIN_ITEMS + ITEMS_PER_PAGE - 1) / ITEMS_PER_PAGE);
+                        if (random.nextBoolean()) {
+                            final int from = published.get();
+                            final String rawPage = list.getRawPage(page);
+                            if (assertRenderedFromOneVersion(page, rawPage, history, published, from, running)) {
+                                verified.increment();
+                            }
+                        } else {
+                            list.getComponentAsync(page).join();
+                        }
+                        renders.increment();
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+
+        writer.start();
+        readers.forEach(Thread::start);
+        TimeUnit.MILLISECONDS.sleep(STRESS_MILLIS);
+        running.set(false);
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        if (!failures.isEmpty()) {
+            Assertions.fail("Concurrent rendering failed", failures.peek());
+        }
+        Assertions.assertTrue(renders.sum() > 0);
+        Assertions.assertTrue(verified.sum() > 0, "No rendered page could be checked against its version");
+    }
+
+    /**
+     * Checks a rendered page shows exactly the items of one version of the list that was published while it was
+     * rendering, at the position and with the totals its header says it does
+     *
+     * @return Whether the page could be checked, which it cannot if its versions were overwritten in the history
+     */
+    private static boolean assertRenderedFromOneVersion(int page, String rawPage, AtomicReferenceArray<Version> history,
+                                                        AtomicInteger published, int from, AtomicBoolean running) {
+        final String[] lines = rawPage.split("\n");
+        final String[] header = lines[0].split("[- ]");
+        final int first = Integer.parseInt(header[0]);
+        final int last = Integer.parseInt(header[1]);
+        final int total = Integer.parseInt(header[3]);
+        Assertions.assertEquals((page - 1) * ITEMS_PER_PAGE + 1, first, rawPage);
+        Assertions.assertEquals(Math.min(total, page * ITEMS_PER_PAGE), last, rawPage);
+        Assertions.assertEquals(last - first + 1, lines.length - 1, rawPage);
+        final List<String> items = List.of(lines).subList(1, lines.length);
+
+        // The render may have read a change the writer has made but not yet published, so wait for it
+        final int to = published.get() + 1;
+        while (published.get() < to && running.get()) {
+            Thread.onSpinWait();
+        }
+        final int latest = Math.min(to, published.get());
+        for (int version = from; version <= latest; version++) {
+            final Version recorded = history.get(version & (HISTORY_SIZE - 1));
+            if (recorded == null || recorded.number != version) {
+                return false;
+            }
+            if (recorded.items.size() == total && recorded.items.getItems(first - 1, items.size()).equals(items)) {
+                return true;
+            }
+        }
+        if (latest < to) {
+            return false;
+        }
+        Assertions.fail("Page was not rendered from any one version between " + from + " and " + latest
+                + ":\n" + rawPage);
+        return false;
+    }
+
+    // An item, unique by id, with the version of the list it was written in
+    private static String versionedItem(int id, int version) {
+        return "Item " + id + " v" + version;
+    }
+
+    private static int itemId(String item) {
+        return Integer.parseInt(item.substring("Item ".length(), item.indexOf(' ', "Item ".length())));
+    }
+
+    /**
+     * A published version of the list's items
+     */
+    private static final class Version {
+        private final int number;
+        private final PageSource items;
+
+        private Version(int number, PageSource items) {
+            this.number = number;
+            this.items = items;
+        }
+    }
+
+}
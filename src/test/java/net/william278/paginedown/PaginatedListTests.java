@@ -19,11 +19,24 @@
 
 package net.william278.paginedown;
 
+import de.themoep.minedown.adventure.MineDown;
+import net.kyori.adventure.text.Component;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class PaginatedListTests {
 
@@ -95,4 +108,577 @@ public class PaginatedListTests {
                         .build());
         Assertions.assertEquals("1|2", shortList.getPageJumperButtons(2));
     }
+
+    @Test
+    public void testPageJumperButtonsOnHugeList() {
+        final PaginatedList hugeList = PaginatedList.of(Collections.nCopies(2_000_000, "Entry"),
+                new ListOptions.Builder()
+                        .setItemsPerPage(10)
+                        .setPageJumperStartButtons(2)
+                        .setPageJumperEndButtons(2)
+                        .setPageJumperPageFormat("%target_page_index%")
+                        .setPageJumperCurrentPageFormat("%current_page%")
+                        .build());
+        Assertions.assertEquals("1|2…199999|200000", hugeList.getPageJumperButtons(1));
+        Assertions.assertEquals("1|2…100000…199999|200000", hugeList.getPageJumperButtons(100000));
+        Assertions.assertEquals("1|2|3…199999|200000", hugeList.getPageJumperButtons(3));
+    }
+
+    @Test
+    public void testHeaderPlaceholders() {
+        final PaginatedList list = PaginatedList.of(generateListData(25, "Item #"),
+                new ListOptions.Builder()
+                        .setItemsPerPage(10)
+                        .setTopic("Homes (%current_page%)")
+                        .setCommand("homes")
+                        .setHeaderFormat("%topic% %first_item_on_page_index%-%last_item_on_page_index% of %TOTAL_ITEMS% %command% %color% %unknown%")
+                        .setSpaceAfterHeader(false)
+                        .setFooterFormat("")
+                        .build());
+        Assertions.assertEquals("Homes (3) 21-25 of 25 homes #00fb9a \nItem 21\nItem 22\nItem 23\nItem 24\nItem 25",
+                list.getRawPage(3));
+    }
+
+    @Test
+    public void testPageCache() {
+        final List<String> items = generateListData(30, "Item #");
+        final PaginatedList list = PaginatedList.of(items,
+                new ListOptions.Builder()
+                        .setItemsPerPage(10)
+                        .setPageCacheSize(2)
+                        .build());
+        final String firstPage = list.getRawPage(1);
+        Assertions.assertSame(firstPage, list.getRawPage(1));
+        // Each caller gets its own MineDown, as MineDown instances are mutable
+        final MineDown page = list.getPage(1);
+        Assertions.assertNotSame(page, list.getPage(1));
+        Assertions.assertEquals(page.toComponent(), list.getPage(1).toComponent());
+        Assertions.assertNotSame(list.getPageAsync(1).join(), list.getPageAsync(1).join());
+        Assertions.assertEquals(6, list.getCacheHits());
+        Assertions.assertEquals(1, list.getCacheMisses());
+
+        // Changing an item on the page invalidates it
+        items.set(0, "Changed item");
+        Assertions.assertNotEquals(firstPage, list.getRawPage(1));
+        Assertions.assertEquals(2, list.getCacheMisses());
+
+        // Least recently used pages are evicted
+        list.getRawPage(2);
+        list.getRawPage(3);
+        list.getRawPage(1);
+        Assertions.assertEquals(5, list.getCacheMisses());
+    }
+
+    @Test
+    public void testPageComponent() {
+        final PaginatedList list = PaginatedList.of(generateListData(25, "[Item #](bold)"),
+                new ListOptions.Builder()
+                        .setItemsPerPage(10)
+                        .build());
+        final Component page = list.getComponent(3);
+
+        // Header, two line breaks, five items with four separators, two line breaks, footer
+        Assertions.assertEquals(15, page.children().size());
+        Assertions.assertEquals(Component.text("[Item 21](bold)"), page.children().get(3));
+        Assertions.assertEquals(Component.newline(), page.children().get(4));
+        Assertions.assertEquals(Component.text("[Item 25](bold)"), page.children().get(11));
+    }
+
+    @Test
+    public void testPageSourceReadAhead() {
+        final List<String> backend = generateListData(95, "Row #");
+        final AtomicInteger fetches = new AtomicInteger();
+        final PaginatedList list = PaginatedList.of(PageSource.of(backend::size, (offset, limit) -> {
+                    fetches.incrementAndGet();
+                    return backend.subList(offset, Math.min(backend.size(), offset + limit));
+                }),
+                new ListOptions.Builder()
+                        .setItemsPerPage(10)
+                        .setReadAheadPages(1)
+                        .build());
+        Assertions.assertEquals(10, list.getTotalPages());
+        Assertions.assertEquals(PaginatedList.of(backend, new ListOptions.Builder().setItemsPerPage(10).build())
+                .getRawPage(5), list.getRawPage(5));
+        list.getRawPage(4);
+        list.getRawPage(6);
+        Assertions.assertEquals(1, fetches.get());
+
+        // Changing the item count discards read-ahead items
+        backend.add("Row 96");
+        list.getRawPage(5);
+        Assertions.assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void testReadAheadExpiryAndRegions() {
+        final List<String> backend = generateListData(1000, "Row #");
+        final AtomicInteger fetches = new AtomicInteger();
+        final AtomicLong clock = new AtomicLong();
+        final ReadAheadPageSource source = new ReadAheadPageSource(PageSource.of(backend::size, (offset, limit) -> {
+            fetches.incrementAndGet();
+            return new ArrayList<>(backend.subList(offset, Math.min(backend.size(), offset + limit)));
+        }), 10, Duration.ofSeconds(5).toNanos(), clock::get);
+        source.size();
+
+        // Viewers in different regions keep their own windows
+        source.getItems(100, 10);
+        source.getItems(800, 10);
+        Assertions.assertEquals("Row 101", source.getItems(100, 10).get(0));
+        Assertions.assertEquals("Row 801", source.getItems(800, 10).get(0));
+        Assertions.assertEquals(2, fetches.get());
+
+        // Edits that keep the item count are picked up once the window expires
+        backend.set(100, "Edited");
+        clock.addAndGet(Duration.ofSeconds(4).toNanos());
+        Assertions.assertEquals("Row 101", source.getItems(100, 10).get(0));
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        Assertions.assertEquals("Edited", source.getItems(100, 10).get(0));
+        Assertions.assertEquals(3, fetches.get());
+
+        source.invalidate();
+        source.getItems(100, 10);
+        Assertions.assertEquals(4, fetches.get());
+    }
+
+    @Test
+    public void testAsyncRenderCoalescing() {
+        final List<Runnable> queuedRenders = new ArrayList<>();
+        final PaginatedList list = PaginatedList.of(generateListData(30, "Item #"),
+                new ListOptions.Builder()
+                        .setItemsPerPage(10)
+                        .setRenderExecutor(queuedRenders::add)
+                        .build());
+        final CompletableFuture<String> first = list.getRawPageAsync(2);
+        final CompletableFuture<String> second = list.getRawPageAsync(2);
+        final CompletableFuture<String> outOfBounds = list.getRawPageAsync(4);
+        Assertions.assertEquals(2, queuedRenders.size());
+
+        queuedRenders.forEach(Runnable::run);
+        Assertions.assertEquals(list.getRawPage(2), first.join());
+        Assertions.assertEquals(list.getRawPage(2), second.join());
+        Assertions.assertTrue(outOfBounds.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testEscapedItemsFollowChanges() {
+        final List<String> items = generateListData(5, "[Item #](bold)");
+        final PaginatedList list = PaginatedList.of(items, new ListOptions.Builder()
+                .setHeaderFormat("")
+                .setFooterFormat("")
+                .setItemSeparator(", ")
+                .build());
+        Assertions.assertTrue(list.getRawPage(1).startsWith(MineDown.escape("[Item 1](bold)") + ", "));
+        items.set(0, "*Replaced*");
+        Assertions.assertTrue(list.getRawPage(1).startsWith(MineDown.escape("*Replaced*") + ", "));
+    }
+
+    @Test
+    public void testEscapedItemsMemoIsBounded() {
+        final EscapedItems escaped = new EscapedItems(4);
+        final String item = "[Item](bold)";
+        final String first = escaped.get(0, item);
+        Assertions.assertSame(first, escaped.get(0, item));
+
+        // Indexes sharing a slot replace each other rather than growing the memo
+        Assertions.assertEquals(MineDown.escape("*Other*"), escaped.get(4, "*Other*"));
+        final String again = escaped.get(0, item);
+        Assertions.assertEquals(first, again);
+        Assertions.assertNotSame(first, again);
+        Assertions.assertEquals(MineDown.escape("*Far*"), escaped.get(Integer.MAX_VALUE, "*Far*"));
+    }
+
+    @Test
+    public void testChromeComponentsFollowFormattedChrome() {
+        final ChromeComponents chrome = new ChromeComponents();
+        final Component header = chrome.getHeader(1, "Page 1 of 3");
+        Assertions.assertSame(header, chrome.getHeader(1, "Page 1 of 3"));
+        Assertions.assertEquals(Component.text("Page 1 of 4"), chrome.getHeader(1, "Page 1 of 4"));
+        Assertions.assertNotSame(header, chrome.getHeader(1, "Page 1 of 3"));
+        Assertions.assertEquals(Component.text("Page 1 of 3"), chrome.getFooter(1, "Page 1 of 3"));
+    }
+
+    @Test
+    public void testRenderStatistics() {
+        final RenderStatistics statistics = new RenderStatistics();
+        final List<RenderEvent> events = new ArrayList<>();
+        final PaginatedList list = PaginatedList.of(generateListData(30, "Item #"),
+                new ListOptions.Builder()
+                        .setItemsPerPage(10)
+                        .setPageCacheSize(5)
+                        .setRenderListener(event -> {
+                            events.add(event);
+                            statistics.onRender(event);
+                        })
+                        .build());
+        final String page = list.getRawPage(2);
+        list.getRawPage(2);
+        list.getComponent(3);
+
+        Assertions.assertEquals(3, statistics.getRenderCount());
+        Assertions.assertEquals(1, statistics.getCacheHits());
+        Assertions.assertEquals(2, statistics.getCacheMisses());
+        Assertions.assertEquals(2L * page.length(), statistics.getOutputCharacters());
+        Assertions.assertEquals(RenderEvent.CacheStatus.MISS, events.get(0).getCacheStatus());
+        Assertions.assertEquals(RenderEvent.Type.COMPONENT, events.get(2).getType());
+        Assertions.assertEquals(3, events.get(2).getPage());
+        Assertions.assertTrue(statistics.getLatencyPercentile(100) >= events.get(0).getTotalNanos());
+    }
+
+    @Test
+    public void testRenderPageIntoBuffers() throws IOException {
+        final PaginatedList list = PaginatedList.of(generateListData(200, "[Item #](gray)"));
+        final StringBuilder builder = new StringBuilder("> ");
+        list.renderPage(7, builder);
+        Assertions.assertEquals("> " + list.getRawPage(7), builder.toString());
+
+        final StringWriter writer = new StringWriter();
+        list.renderPage(7, writer);
+        list.renderPage(8, writer);
+        Assertions.assertEquals(list.getRawPage(7) + list.getRawPage(8), writer.toString());
+    }
+
+    @Test
+    public void testFilterAndSortViews() {
+        final List<String> items = generateListData(200, "Item #");
+        final PaginatedList list = PaginatedList.of(items);
+
+        final PaginatedList filtered = list.filter("ITEM 1");
+        final List<String> expected = items.stream()
+                .filter(item -> item.startsWith("Item 1"))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(111, expected.size());
+        Assertions.assertEquals(PaginatedList.of(expected).getTotalPages(), filtered.getTotalPages());
+        Assertions.assertEquals(PaginatedList.of(expected).getRawPage(3), filtered.getRawPage(3));
+
+        final PaginatedList sorted = filtered.sort(Comparator.reverseOrder());
+        expected.sort(Comparator.reverseOrder());
+        Assertions.assertEquals(PaginatedList.of(expected).getRawPage(2), sorted.getRawPage(2));
+
+        final PaginatedList tens = sorted.filter(item -> item.endsWith("0"));
+        Assertions.assertEquals(PaginatedList.of(List.of("Item 190", "Item 180", "Item 170", "Item 160",
+                "Item 150", "Item 140", "Item 130", "Item 120", "Item 110", "Item 100", "Item 10")).getRawPage(1),
+                tens.getRawPage(1));
+    }
+
+    @Test
+    public void testViewsOutliveSourceChanges() {
+        final List<String> items = generateListData(30, "Item #");
+        final PaginatedList list = PaginatedList.of(items, new ListOptions.Builder().setItemsPerPage(10).build());
+        final PaginatedList filtered = list.filter("item 2");
+        final String page = filtered.getRawPage(1);
+
+        // Appending to the backing list doesn't fail or change views already taken
+        items.add("Item 200");
+        items.set(19, "Item 2 replaced");
+        Assertions.assertEquals(page, filtered.getRawPage(1));
+        Assertions.assertEquals(2, list.filter("item 2").getTotalPages());
+    }
+
+    @Test
+    public void testSearchKeysArePerSnapshot() {
+        final IndexedView.SearchKeys searchKeys = new IndexedView.SearchKeys();
+        final String[] first = {"Alpha", "Beta"};
+        final String[] firstKeys = searchKeys.getKeys(first);
+        final String[] secondKeys = searchKeys.getKeys(new String[]{"Alpha", "Gamma", "Delta"});
+        Assertions.assertNotSame(firstKeys, secondKeys);
+        Assertions.assertEquals(List.of("alpha", "beta"), List.of(firstKeys));
+        Assertions.assertEquals(List.of("alpha", "gamma", "delta"), List.of(secondKeys));
+        Assertions.assertSame(firstKeys[0], secondKeys[0]);
+
+        // Views of an immutable snapshot read items from it rather than copying them
+        final AtomicInteger copies = new AtomicInteger();
+        final List<String> items = generateListData(50, "Item #");
+        final PageSource snapshot = PageSource.of(items::size, (offset, limit) -> {
+            copies.incrementAndGet();
+            return items.subList(offset, offset + limit);
+        });
+        final PaginatedList list = PaginatedList.of(new PageSource() {
+            @Override
+            public int size() {
+                return snapshot.size();
+            }
+
+            @Override
+            public List<String> getItems(int offset, int limit) {
+                return snapshot.getItems(offset, limit);
+            }
+
+            @Override
+            public PageSource snapshot() {
+                return snapshot;
+            }
+        }, new ListOptions.Builder().build());
+        final String page = list.filter("item 1").getRawPage(1);
+        final int fetches = copies.get();
+
+        // Searching the unchanged snapshot again reuses its keys, fetching only the items of the rendered page
+        Assertions.assertEquals(page, list.filter("ITEM 1").getRawPage(1));
+        Assertions.assertEquals(fetches + 1, copies.get());
+        final PaginatedList packedList = PaginatedList.of(PackedPageSource.of(items),
+                new ListOptions.Builder().build());
+        Assertions.assertEquals(packedList.filter("item 1").getRawPage(1), packedList.filter("ITEM 1").getRawPage(1));
+    }
+
+    @Test
+    public void testBudgetedPages() {
+        final ListOptions options = new ListOptions.Builder()
+                .setHeaderFormat("%first_item_on_page_index%-%last_item_on_page_index%/%total_pages%")
+                .setFooterFormat("")
+                .setSpaceAfterHeader(false)
+                .setPageLineBudget(6)
+                .setPageCharacterBudget(40)
+                .build();
+        final LivePageSource source = new LivePageSource();
+        final PaginatedList list = PaginatedList.of(source, options);
+        final List<String> items = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            final String item = "Item " + i + "\nLine".repeat(i % 4) + "!".repeat(i % 9);
+            items.add(item);
+            source.add(item);
+            if (i % 50 == 49) {
+                assertBudgetedPages(items, list, 6, 40);
+            }
+        }
+        source.set(7, "Item 7 is now a much longer item");
+        items.set(7, "Item 7 is now a much longer item");
+        source.remove(120);
+        items.remove(120);
+        assertBudgetedPages(items, list, 6, 40);
+    }
+
+    @Test
+    public void testBudgetedPagesOfPlainList() {
+        final List<String> items = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            items.add("Item " + i + "\nLine".repeat(i % 3));
+        }
+        final PaginatedList list = PaginatedList.of(items, new ListOptions.Builder()
+                .setHeaderFormat("%first_item_on_page_index%-%last_item_on_page_index%/%total_pages%")
+                .setFooterFormat("")
+                .setSpaceAfterHeader(false)
+                .setPageLineBudget(6)
+                .setPageCharacterBudget(40)
+                .build());
+        assertBudgetedPages(items, list, 6, 40);
+
+        // Items inserted or removed without notification are laid out from the first page, and appended items
+        // from the last page
+        items.add(0, "A much longer first item\nLine\nLine\nLine");
+        assertBudgetedPages(items, list, 6, 40);
+        items.add("Item 60");
+        assertBudgetedPages(items, list, 6, 40);
+        items.remove(1);
+        items.add(5, "Item");
+        items.add(5, "Item");
+        assertBudgetedPages(items, list, 6, 40);
+    }
+
+    @Test
+    public void testBudgetedPagesOfStaleView() {
+        final ListOptions options = new ListOptions.Builder()
+                .setPageLineBudget(6)
+                .setPageCharacterBudget(40)
+                .build();
+        final LivePageSource source = new LivePageSource();
+        for (int i = 0; i < 60; i++) {
+            source.add("Item " + i + "\nLine".repeat(i % 3));
+        }
+        final PageLayout layout = PageLayout.of(options);
+        final PageSource.ChangeListener listener = (fromIndex, toIndex, resized) -> layout.onItemsChanged(fromIndex);
+        source.addChangeListener(listener);
+        layout.getPages(source.snapshot(), layout.getChangeCount());
+
+        // A render holding a view from before a change lays it out without hiding the change from later renders
+        final long staleChanges = layout.getChangeCount();
+        final PageSource stale = source.snapshot();
+        source.set(3, "A much longer item\nLine\nLine\nLine");
+        assertSamePages(PageLayout.of(options).getPages(stale, 0), layout.getPages(stale, staleChanges));
+        final long changes = layout.getChangeCount();
+        final PageSource current = source.snapshot();
+        assertSamePages(PageLayout.of(options).getPages(current, 0), layout.getPages(current, changes));
+        assertSamePages(PageLayout.of(options).getPages(stale, 0), layout.getPages(stale, staleChanges));
+        assertSamePages(PageLayout.of(options).getPages(current, 0),
+                layout.getPages(source.snapshot(), layout.getChangeCount()));
+    }
+
+    private void assertSamePages(PageLayout.Pages expected, PageLayout.Pages actual) {
+        Assertions.assertEquals(expected.getTotalItems(), actual.getTotalItems());
+        Assertions.assertEquals(expected.getTotalPages(), actual.getTotalPages());
+        for (int page = 1; page <= expected.getTotalPages(); page++) {
+            Assertions.assertEquals(expected.getPageStart(page), actual.getPageStart(page));
+            Assertions.assertEquals(expected.getPageEnd(page), actual.getPageEnd(page));
+        }
+    }
+
+    // Checks a list's pages match a greedy layout of items within line and character budgets
+    private void assertBudgetedPages(List<String> items, PaginatedList list, int lineBudget, int characterBudget) {
+        final List<Integer> starts = new ArrayList<>();
+        int start = 0;
+        while (start < items.size()) {
+            starts.add(start);
+            int end = start;
+            int lines = 0;
+            int characters = 0;
+            while (end < items.size()) {
+                final String item = items.get(end);
+                lines += item.split("\n", -1).length;
+                characters += item.length() + 1;
+                if (end > start && (lines > lineBudget || characters > characterBudget)) {
+                    break;
+                }
+                end++;
+            }
+            start = end;
+        }
+        Assertions.assertEquals(starts.size(), list.getTotalPages());
+        for (int page = 1; page <= starts.size(); page++) {
+            final int end = page < starts.size() ? starts.get(page) : items.size();
+            Assertions.assertEquals((starts.get(page - 1) + 1) + "-" + end + "/" + starts.size() + "\n"
+                            + String.join("\n", items.subList(starts.get(page - 1), end)),
+                    list.getRawPage(page).replace("\\", ""));
+        }
+    }
+
+    @Test
+    public void testOptionsAreSharedValues() {
+        final ListOptions.Builder builder = new ListOptions.Builder().setTopic("Warps").setItemsPerPage(5);
+        final ListOptions first = builder.build();
+        final ListOptions second = builder.build();
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(first.hashCode(), second.hashCode());
+        Assertions.assertSame(first.headerTemplate, second.headerTemplate);
+
+        // Building again does not change options already built
+        final ListOptions resized = builder.setItemsPerPage(8).build();
+        Assertions.assertNotEquals(first, resized);
+        Assertions.assertEquals(5, first.itemsPerPage);
+        Assertions.assertSame(first.footerTemplate, resized.footerTemplate);
+        Assertions.assertNotSame(first.headerTemplate, builder.setTopic("Homes").build().headerTemplate);
+    }
+
+    @Test
+    public void testSerializedPageBroadcast() {
+        final LivePageSource source = new LivePageSource(generateListData(50, "Rule #"));
+        final PaginatedList list = PaginatedList.of(source, new ListOptions.Builder().setPageCacheSize(4).build());
+        final AtomicInteger serializations = new AtomicInteger();
+        final Function<Component, String> serializer = component -> "payload " + serializations.incrementAndGet();
+
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals("payload 1", list.getSerializedPage(2, serializer));
+        }
+        Assertions.assertEquals(1, serializations.get());
+
+        source.set(12, "Changed rule");
+        Assertions.assertEquals("payload 2", list.getSerializedPage(2, serializer));
+        Assertions.assertEquals("payload 2", list.getSerializedPage(2, serializer));
+    }
+
+    @Test
+    public void testSerializedPayloadsAreBounded() {
+        final PaginatedList list = PaginatedList.of(generateListData(50, "Rule #"),
+                new ListOptions.Builder().setPageCacheSize(4).build());
+        final AtomicInteger serializations = new AtomicInteger();
+        final Function<Component, String> json = component -> "json " + serializations.incrementAndGet();
+        final Function<Component, String> legacy = component -> "legacy " + serializations.incrementAndGet();
+        Assertions.assertEquals("json 1", list.getSerializedPage(1, json));
+        Assertions.assertEquals("legacy 2", list.getSerializedPage(1, legacy));
+        Assertions.assertEquals("json 1", list.getSerializedPage(1, json));
+
+        // Serializers created per call are serialized again and replace older payloads, rather than accumulating
+        for (int i = 0; i < 100; i++) {
+            final int call = i;
+            list.getSerializedPage(1, component -> "inline " + call);
+        }
+        Assertions.assertEquals("json 3", list.getSerializedPage(1, json));
+        Assertions.assertEquals("legacy 4", list.getSerializedPage(1, legacy));
+        Assertions.assertEquals("json 3", list.getSerializedPage(1, json));
+    }
+
+    @Test
+    public void testRenderAllPagesInOrder() {
+        final PaginatedList list = PaginatedList.of(generateListData(1000, "Item #"),
+                new ListOptions.Builder().setItemsPerPage(7).build());
+        final List<Integer> pages = new ArrayList<>();
+        list.renderAllPages((page, rawPage) -> {
+            pages.add(page);
+            Assertions.assertEquals(list.getRawPage(page), rawPage);
+        });
+        Assertions.assertEquals(list.getTotalPages(), pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            Assertions.assertEquals(i + 1, (int) pages.get(i));
+        }
+
+        final List<Integer> selected = new ArrayList<>();
+        list.renderPages(IntStream.of(5, 2, 9), (page, rawPage) -> selected.add(page));
+        Assertions.assertEquals(List.of(5, 2, 9), selected);
+        Assertions.assertThrows(PaginationException.class,
+                () -> list.renderPages(IntStream.of(1, 1000), (page, rawPage) -> {}));
+    }
+
+    @Test
+    public void testTypedItemsFormattedLazily() {
+        final List<Integer> balances = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            balances.add(i * 3);
+        }
+        final AtomicInteger formatted = new AtomicInteger();
+        final PaginatedList list = PaginatedList.of(balances, balance -> {
+            formatted.incrementAndGet();
+            return "Balance: $" + balance;
+        }, new ListOptions.Builder().setFormattedItemCacheSize(64).build());
+        Assertions.assertEquals(0, formatted.get());
+
+        final String page = list.getRawPage(500);
+        Assertions.assertTrue(page.contains("Balance: $14970"));
+        Assertions.assertEquals(10, formatted.get());
+        Assertions.assertEquals(page, list.getRawPage(500));
+        Assertions.assertEquals(10, formatted.get());
+        Assertions.assertEquals(10_000, list.getTotalPages());
+    }
+
+    @Test
+    public void testCustomPlaceholders() {
+        final AtomicInteger listResolutions = new AtomicInteger();
+        final ListOptions options = new ListOptions.Builder()
+                .setHeaderFormat("%server% %Balance% %page_label%")
+                .setFooterFormat("%page_label%%unknown%")
+                .setSpaceAfterHeader(false)
+                .setSpaceBeforeFooter(false)
+                .setItemsPerPage(2)
+                .setPlaceholder("server", "Lobby")
+                .setListPlaceholder("balance", () -> "$" + listResolutions.incrementAndGet())
+                .setPagePlaceholder("page_label", page -> "<" + page + ">")
+                .build();
+        final PaginatedList list = PaginatedList.of(List.of("A", "B", "C"), options);
+        Assertions.assertEquals("Lobby $1 <1>\nA\nB\n<1>", list.getRawPage(1));
+        Assertions.assertEquals("Lobby $1 <2>\nC\n<2>", list.getRawPage(2));
+        Assertions.assertEquals(1, listResolutions.get());
+        Assertions.assertEquals("Lobby", options.headerTemplate.literals[0].substring(0, 5));
+
+        Assertions.assertThrows(PaginationException.class,
+                () -> new ListOptions.Builder().setPlaceholder("total_pages", "0"));
+    }
+
+    @Test
+    public void testItemComponentsReusedAcrossRefreshes() {
+        final LivePageSource source = new LivePageSource(generateListData(10, "[#. Player#](gray)"));
+        final PaginatedList list = PaginatedList.of(source, new ListOptions.Builder()
+                .setHeaderFormat("")
+                .setFooterFormat("")
+                .setEscapeItemsMineDown(false)
+                .setItemComponentCacheSize(64)
+                .build());
+        final List<Component> before = list.getComponent(1).children();
+
+        // Only the changed items are rendered again; every other item component is reused
+        source.set(0, "[1. Player2](gray)");
+        source.set(1, "[2. Player1](gray)");
+        source.set(5, "[6. NewPlayer](gray)");
+        final List<Component> after = list.getComponent(1).children();
+        Assertions.assertEquals(before.size(), after.size());
+        Assertions.assertSame(before.get(18), after.get(18));
+        Assertions.assertNotSame(before.get(10), after.get(10));
+        Assertions.assertEquals(new MineDown("[6. NewPlayer](gray)").toComponent(), after.get(10));
+    }
 }
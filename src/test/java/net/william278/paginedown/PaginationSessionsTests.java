@@ -0,0 +1,124 @@
+/*
+ * This file is part of PagineDown, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.paginedown;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PaginationSessionsTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void testSessionReuseAndIdleExpiry() {
+        final PaginationSessions sessions = new PaginationSessions(Duration.ofMinutes(5), 100, clock::get);
+        final UUID viewer = UUID.randomUUID();
+        final AtomicInteger builds = new AtomicInteger();
+        final PaginatedList list = sessions.get(viewer, "list", () -> {
+            builds.incrementAndGet();
+            return PaginatedList.of(List.of("Item 1", "Item 2"));
+        });
+
+        clock.addAndGet(Duration.ofMinutes(4).toNanos());
+        Assertions.assertSame(list, sessions.get(viewer, "list", () -> PaginatedList.of(List.of())));
+        Assertions.assertNull(sessions.get(viewer, "other"));
+        Assertions.assertNull(sessions.get(UUID.randomUUID(), "list"));
+
+        // Access resets the idle timeout
+        clock.addAndGet(Duration.ofMinutes(4).toNanos());
+        Assertions.assertSame(list, sessions.get(viewer, "list"));
+
+        clock.addAndGet(Duration.ofMinutes(5).toNanos());
+        Assertions.assertNull(sessions.get(viewer, "list"));
+        Assertions.assertEquals(0, sessions.size());
+        Assertions.assertEquals(1, builds.get());
+    }
+
+    @Test
+    public void testMaxSessionsEvictsLeastRecentlyAccessed() {
+        final PaginationSessions sessions = new PaginationSessions(Duration.ofMinutes(5), 2, clock::get);
+        final UUID first = UUID.randomUUID();
+        final UUID second = UUID.randomUUID();
+        final UUID third = UUID.randomUUID();
+        sessions.put(first, "list", PaginatedList.of(List.of("Item")));
+        clock.incrementAndGet();
+        sessions.put(second, "list", PaginatedList.of(List.of("Item")));
+        clock.incrementAndGet();
+        Assertions.assertNotNull(sessions.get(first, "list"));
+        clock.incrementAndGet();
+
+        sessions.put(third, "list", PaginatedList.of(List.of("Item")));
+        Assertions.assertEquals(2, sessions.size());
+        Assertions.assertNotNull(sessions.get(first, "list"));
+        Assertions.assertNull(sessions.get(second, "list"));
+        Assertions.assertNotNull(sessions.get(third, "list"));
+
+        sessions.invalidate(first);
+        Assertions.assertNull(sessions.get(first, "list"));
+    }
+
+    @Test
+    public void testSampledEvictionKeepsRecentSessions() {
+        final PaginationSessions sessions = new PaginationSessions(Duration.ofMinutes(5), 100, clock::get);
+        final UUID hot = UUID.randomUUID();
+        final PaginatedList list = PaginatedList.of(List.of("Item"));
+        sessions.put(hot, "list", list);
+        for (int i = 0; i < 1000; i++) {
+            clock.incrementAndGet();
+            Assertions.assertSame(list, sessions.get(hot, "list"));
+            clock.incrementAndGet();
+            final UUID viewer = UUID.randomUUID();
+            sessions.put(viewer, "list", list);
+            Assertions.assertNotNull(sessions.get(viewer, "list"));
+            Assertions.assertTrue(sessions.size() <= 100);
+        }
+        Assertions.assertEquals(100, sessions.size());
+    }
+
+    @Test
+    public void testSampledEvictionReachesWholeRegistry() {
+        final PaginationSessions sessions = new PaginationSessions(Duration.ofMinutes(5), 200, clock::get);
+        final PaginatedList list = PaginatedList.of(List.of("Item"));
+        final List<UUID> old = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            old.add(UUID.randomUUID());
+            sessions.put(old.get(i), "list", list);
+        }
+        final List<UUID> recent = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            clock.incrementAndGet();
+            recent.add(UUID.randomUUID());
+            sessions.put(recent.get(i), "list", list);
+        }
+        Assertions.assertEquals(200, sessions.size());
+
+        // Old sessions are evicted wherever they are in the map, rather than only those first in iteration order
+        final long oldRemaining = old.stream().filter(viewer -> sessions.get(viewer, "list") != null).count();
+        Assertions.assertTrue(oldRemaining <= 40, oldRemaining + " of 200 old sessions were kept");
+    }
+
+}